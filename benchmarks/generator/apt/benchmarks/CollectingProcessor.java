@@ -0,0 +1,32 @@
+package generator.apt.benchmarks;
+
+import generator.apt.SimplifiedAST;
+import generator.apt.SimplifiedAbstractProcessor;
+import lombok.Getter;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+@SupportedAnnotationTypes("generator.apt.benchmarks.Generate")
+public class CollectingProcessor extends SimplifiedAbstractProcessor {
+
+    @Getter
+    final List<SimplifiedAST.Type> types = new ArrayList<>();
+
+    public CollectingProcessor() {
+        super(
+            singletonList(Generate.class),
+            singletonList(Generate.class),
+            singletonList(Generate.class)
+        );
+    }
+
+    @Override
+    protected void process(Collection<SimplifiedAST.Type> types) {
+        this.types.addAll(types);
+    }
+}
@@ -0,0 +1,11 @@
+package generator.apt.benchmarks;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the synthetic types that should be memorized by {@link CollectingProcessor}.
+ */
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.METHOD})
+public @interface Generate {
+}
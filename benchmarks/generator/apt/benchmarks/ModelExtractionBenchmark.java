@@ -0,0 +1,68 @@
+package generator.apt.benchmarks;
+
+import generator.apt.SimplifiedAPTRunner;
+import generator.apt.SimplifiedAST;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.openjdk.jmh.annotations.*;
+
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Measures how long it takes to memorize the annotated classes of a source set, from parsing
+ * to the types handed over to the processor. Run it with the {@code benchmarks} profile,
+ * which also enables the GC profiler to report allocation rates:
+ *
+ * <pre>mvn -P benchmarks test-compile exec:exec</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelExtractionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int numberOfClasses;
+
+    @Param({"FLAT", "DEEP_HIERARCHY", "LOMBOK"})
+    SyntheticSources sources;
+
+    List<JavaFileObject> compilationUnits;
+    SimplifiedAPTRunner runner;
+
+    @Setup
+    @SneakyThrows
+    public void setup() {
+        compilationUnits = sources.generate(numberOfClasses);
+        runner = createRunner();
+    }
+
+    @Benchmark
+    public List<SimplifiedAST.Type> extract() {
+        val processor = new CollectingProcessor();
+        val result = runner.run(compilationUnits, singletonList(processor));
+        if (!result.isSuccess())
+            throw new IllegalStateException("Could not compile the synthetic sources: " + result.getDiagnostics());
+        return processor.getTypes();
+    }
+
+    @SneakyThrows
+    static SimplifiedAPTRunner createRunner() {
+        val config = new SimplifiedAPTRunner.Config();
+        val workDir = Files.createTempDirectory("class-generator-benchmark").toFile();
+        config.sourceDir = singletonList(workDir);
+        config.outputDir = singletonList(new File(workDir, "output"));
+        config.classOutputDir = config.outputDir;
+        config.classPath = SyntheticSources.currentClassPath();
+        return new SimplifiedAPTRunner(config, ToolProvider.getSystemJavaCompiler());
+    }
+}
@@ -0,0 +1,89 @@
+package generator.apt.benchmarks;
+
+import generator.apt.ClassGenerator;
+import generator.apt.RenderingBackend;
+import generator.apt.SimplifiedAST;
+import lombok.val;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Measures how long it takes to render the {@code delegate-class.mustache} template
+ * for every memorized type of a source set. Types are memorized once per trial.
+ *
+ * @see ModelExtractionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RenderingBenchmark {
+
+    static final String TEMPLATE = "delegate-class.mustache";
+
+    @Param({"10", "100", "1000"})
+    int numberOfClasses;
+
+    @Param({"FLAT", "DEEP_HIERARCHY", "LOMBOK"})
+    SyntheticSources sources;
+
+    @Param({"REFLECTION", "METHOD_HANDLES"})
+    RenderingBackend backend;
+
+    List<SimplifiedAST.Type> types;
+    ClassGenerator generator;
+
+    @Setup
+    public void setup() {
+        val processor = new CollectingProcessor();
+        val result = ModelExtractionBenchmark.createRunner()
+            .run(sources.generate(numberOfClasses), singletonList(processor));
+        if (!result.isSuccess())
+            throw new IllegalStateException("Could not compile the synthetic sources: " + result.getDiagnostics());
+        types = processor.getTypes();
+        generator = ClassGenerator.with(TEMPLATE, backend);
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        val writer = new BlackholeWriter(blackhole);
+        for (val type : types)
+            generator.write(writer, type);
+    }
+
+    /**
+     * Discards everything written into it, so only the rendering itself is measured.
+     */
+    static class BlackholeWriter extends Writer {
+
+        final Blackhole blackhole;
+
+        BlackholeWriter(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            blackhole.consume(chars);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            blackhole.consume(str);
+        }
+
+        @Override
+        public void flush() { }
+
+        @Override
+        public void close() { }
+    }
+}
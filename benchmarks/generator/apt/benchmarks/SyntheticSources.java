@@ -0,0 +1,104 @@
+package generator.apt.benchmarks;
+
+import lombok.val;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates in-memory source sets with a given amount of annotated classes.
+ */
+public enum SyntheticSources {
+
+    /** Annotated classes extending {@link Object}, with annotated fields and methods. */
+    FLAT {
+        @Override
+        String classDeclaration(int index) {
+            return "@Generate public class Annotated" + index + " {\n" + members() + "}\n";
+        }
+    },
+
+    /** Annotated classes extending a 4-level deep hierarchy, sharing interfaces. */
+    DEEP_HIERARCHY {
+        @Override
+        String classDeclaration(int index) {
+            return "@Generate public class Annotated" + index + " extends Base3 implements Identified {\n" + members() + "}\n";
+        }
+
+        @Override
+        List<JavaFileObject> supportSources() {
+            val sources = new ArrayList<JavaFileObject>();
+            sources.add(source("Identified", "public interface Identified extends java.io.Serializable { }"));
+            sources.add(source("Auditable", "public interface Auditable extends Comparable<Object> { }"));
+            sources.add(source("Base0", "public abstract class Base0 implements Auditable { public int compareTo(Object o) { return 0; } }"));
+            sources.add(source("Base1", "public abstract class Base1 extends Base0 implements Identified { }"));
+            sources.add(source("Base2", "public abstract class Base2 extends Base1 implements Runnable { public void run() { } }"));
+            sources.add(source("Base3", "public abstract class Base3 extends Base2 implements Auditable { protected Base3() { } }"));
+            return sources;
+        }
+    },
+
+    /** Annotated classes whose constructors are generated by Lombok annotations. */
+    LOMBOK {
+        @Override
+        String classDeclaration(int index) {
+            return "@Generate @lombok.AllArgsConstructor @lombok.RequiredArgsConstructor\n"
+                + "public class Annotated" + index + " {\n"
+                + "    final String name;\n"
+                + "    @lombok.NonNull String surname;\n"
+                + "    String address;\n"
+                + members()
+                + "}\n";
+        }
+    };
+
+    static final String PACKAGE = "generator.apt.benchmarks.synthetic";
+
+    abstract String classDeclaration(int index);
+
+    List<JavaFileObject> supportSources() {
+        return new ArrayList<>();
+    }
+
+    /**
+     * @param numberOfClasses the amount of annotated classes to be generated
+     * @return the annotated classes, along with the types they depend on
+     */
+    public List<JavaFileObject> generate(int numberOfClasses) {
+        val sources = supportSources();
+        for (int i = 0; i < numberOfClasses; i++)
+            sources.add(source("Annotated" + i, classDeclaration(i)));
+        return sources;
+    }
+
+    static String members() {
+        return "    @Generate java.util.List<String> values;\n"
+            + "    @Generate public String greet(@Deprecated String name, int times) { return name; }\n"
+            + "    @Generate public void reset() { }\n";
+    }
+
+    static JavaFileObject source(String simpleName, String declaration) {
+        val content = "package " + PACKAGE + ";\n\nimport generator.apt.benchmarks.Generate;\n\n" + declaration;
+        val uri = URI.create("string:///" + PACKAGE.replace('.', '/') + "/" + simpleName + ".java");
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+    /**
+     * @return the classpath of the current JVM, which the synthetic sources are compiled against.
+     */
+    static List<File> currentClassPath() {
+        val classPath = new ArrayList<File>();
+        for (val entry : System.getProperty("java.class.path").split(File.pathSeparator))
+            classPath.add(new File(entry));
+        return classPath;
+    }
+}
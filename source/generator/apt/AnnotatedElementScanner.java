@@ -0,0 +1,99 @@
+package generator.apt;
+
+import lombok.Getter;
+import lombok.val;
+
+import javax.lang.model.element.*;
+import javax.lang.model.util.Elements;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.util.*;
+
+/**
+ * Identifies, in a single pass over the round root elements, every field, method
+ * and type annotated with one of the registered annotations. It is equivalent to
+ * calling {@link javax.annotation.processing.RoundEnvironment#getElementsAnnotatedWith(Class)}
+ * for each registered annotation, without scanning the root elements once per call.
+ */
+class AnnotatedElementScanner {
+
+    final Set<String> fieldAnnotations;
+    final Set<String> methodAnnotations;
+    final Set<String> typeAnnotations;
+    final boolean hasInheritedTypeAnnotations;
+
+    AnnotatedElementScanner(
+        List<Class<? extends Annotation>> fieldAnnotations,
+        List<Class<? extends Annotation>> methodAnnotations,
+        List<Class<? extends Annotation>> typeAnnotations)
+    {
+        this.fieldAnnotations = namesOf( fieldAnnotations );
+        this.methodAnnotations = namesOf( methodAnnotations );
+        this.typeAnnotations = namesOf( typeAnnotations );
+        this.hasInheritedTypeAnnotations = typeAnnotations.stream()
+            .anyMatch( ann -> ann.isAnnotationPresent( Inherited.class ) );
+    }
+
+    /**
+     * Scans the root elements, and every type nested in them.
+     *
+     * @param rootElements the round root elements
+     * @param elementUtils used to retrieve {@link Inherited} annotations of types
+     * @return the annotated elements, in the same order they were found
+     */
+    AnnotatedElements scan( Collection<? extends Element> rootElements, Elements elementUtils ) {
+        val found = new AnnotatedElements();
+        for ( val element : rootElements )
+            if ( element instanceof TypeElement )
+                scanType( (TypeElement) element, elementUtils, found );
+        return found;
+    }
+
+    private void scanType( TypeElement type, Elements elementUtils, AnnotatedElements found ) {
+        val kind = type.getKind();
+        if ( kind == ElementKind.CLASS || kind == ElementKind.INTERFACE ) {
+            val annotations = hasInheritedTypeAnnotations
+                ? elementUtils.getAllAnnotationMirrors( type )
+                : type.getAnnotationMirrors();
+            if ( isAnnotatedWithAnyOf( annotations, typeAnnotations ) )
+                found.types.add( type );
+        }
+
+        for ( val enclosed : type.getEnclosedElements() ) {
+            val enclosedKind = enclosed.getKind();
+            if ( enclosedKind == ElementKind.FIELD ) {
+                if ( isAnnotatedWithAnyOf( enclosed.getAnnotationMirrors(), fieldAnnotations ) )
+                    found.fields.add( (VariableElement) enclosed );
+            } else if ( enclosedKind == ElementKind.METHOD ) {
+                if ( isAnnotatedWithAnyOf( enclosed.getAnnotationMirrors(), methodAnnotations ) )
+                    found.methods.add( (ExecutableElement) enclosed );
+            } else if ( enclosed instanceof TypeElement )
+                scanType( (TypeElement) enclosed, elementUtils, found );
+        }
+    }
+
+    private static boolean isAnnotatedWithAnyOf( List<? extends AnnotationMirror> annotations, Set<String> expectedAnnotations ) {
+        if ( expectedAnnotations.isEmpty() )
+            return false;
+        for ( val annotation : annotations ) {
+            val annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if ( expectedAnnotations.contains( annotationType.getQualifiedName().toString() ) )
+                return true;
+        }
+        return false;
+    }
+
+    private static Set<String> namesOf( List<Class<? extends Annotation>> annotations ) {
+        val names = new HashSet<String>();
+        for ( val annotation : annotations )
+            names.add( annotation.getCanonicalName() );
+        return names;
+    }
+
+    @Getter
+    static class AnnotatedElements {
+        final List<VariableElement> fields = new ArrayList<>();
+        final List<ExecutableElement> methods = new ArrayList<>();
+        final List<TypeElement> types = new ArrayList<>();
+    }
+}
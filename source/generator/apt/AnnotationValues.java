@@ -0,0 +1,263 @@
+package generator.apt;
+
+import lombok.val;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.SimpleAnnotationValueVisitor8;
+
+/**
+ * The parameters of an annotation read from the compiler model. Values are only decoded
+ * the first time they are read, and cached afterwards. Through the {@link Map} interface,
+ * values are exposed as their source code representation, e.g. {@code "\"p1\""}, while
+ * {@link #getTyped(String)} exposes them as Java objects.
+ *
+ * Decoding values reads the compiler model, thus it should happen on the annotation
+ * processing thread: call {@link #materialize()} before handing values over to other
+ * threads. Parameters can be redefined, as in any other map, until it is {@link #freeze(UnaryOperator) frozen}.
+ *
+ * @see SimplifiedAST.Annotation#getTypedParameter(String)
+ */
+public class AnnotationValues extends AbstractMap<String, Object> {
+
+    Function<AnnotationMirror, SimplifiedAST.Annotation> annotationFactory;
+    NamePool namePool;
+
+    String[] names;
+    AnnotationValue[] values;
+    Object[] rawValues;
+    Object[] typedValues;
+    boolean frozen;
+
+    /**
+     * @param values the annotation values, keyed by parameter name, in the order they should be exposed
+     * @param annotationFactory creates the annotations found within values
+     * @param namePool interns the type names found within values
+     */
+    public AnnotationValues( Map<String, ? extends AnnotationValue> values,
+                             Function<AnnotationMirror, SimplifiedAST.Annotation> annotationFactory,
+                             NamePool namePool ) {
+        this.names = new String[values.size()];
+        this.values = new AnnotationValue[values.size()];
+        this.rawValues = new Object[values.size()];
+        this.typedValues = new Object[values.size()];
+        this.annotationFactory = annotationFactory;
+        this.namePool = namePool;
+
+        int i = 0;
+        for ( val entry : values.entrySet() ) {
+            this.names[i] = entry.getKey();
+            this.values[i++] = entry.getValue();
+        }
+    }
+
+    /**
+     * @return the value of the given parameter as a Java object: strings, boxed primitives,
+     * {@link SimplifiedAST.EnumConstant}s, {@link SimplifiedAST.ClassLiteral}s, {@link SimplifiedAST.Annotation}s,
+     * or immutable lists of them for arrays. Parameters redefined through {@link #put(String, Object)}
+     * are returned as they were defined. Null if the parameter wasn't defined.
+     */
+    public synchronized Object getTyped( String name ) {
+        val index = indexOf( name );
+        return index >= 0 ? getTyped( index ) : null;
+    }
+
+    private Object getTyped( int index ) {
+        Object typed = typedValues[index];
+        if ( typed == null && values != null && values[index] != null )
+            typedValues[index] = typed = values[index].accept( new TypedValueVisitor(), null );
+        return typed;
+    }
+
+    private Object getRaw( int index ) {
+        Object raw = rawValues[index];
+        if ( raw == null && values != null && values[index] != null )
+            rawValues[index] = raw = values[index].toString();
+        return raw;
+    }
+
+    /**
+     * Decodes every value upfront, including the ones of nested annotations, so they can be
+     * safely read by several threads at once and without accessing the compiler model.
+     *
+     * @return this instance
+     */
+    public synchronized AnnotationValues materialize() {
+        for ( int i = 0; i < names.length; i++ ) {
+            getRaw( i );
+            materialize( getTyped( i ) );
+        }
+        return this;
+    }
+
+    private static void materialize( Object typedValue ) {
+        if ( typedValue instanceof SimplifiedAST.Annotation )
+            ((SimplifiedAST.Annotation) typedValue).materialize();
+        else if ( typedValue instanceof List )
+            for ( val element : (List<?>) typedValue )
+                materialize( element );
+    }
+
+    /**
+     * Materializes the values, including the ones of nested annotations, and rejects any further
+     * change. References to the compiler model are released, so it can be garbage collected
+     * while the frozen values are still in use.
+     *
+     * @param interner interns the parameter names
+     * @return this instance
+     */
+    public synchronized AnnotationValues freeze( UnaryOperator<String> interner ) {
+        if ( frozen )
+            return this;
+
+        materialize();
+        for ( int i = 0; i < names.length; i++ ) {
+            names[i] = interner.apply( names[i] );
+            freeze( typedValues[i], interner );
+        }
+        values = null;
+        annotationFactory = null;
+        namePool = null;
+        frozen = true;
+        return this;
+    }
+
+    private static void freeze( Object typedValue, UnaryOperator<String> interner ) {
+        if ( typedValue instanceof SimplifiedAST.Annotation )
+            ((SimplifiedAST.Annotation) typedValue).freeze( interner );
+        else if ( typedValue instanceof List )
+            for ( val element : (List<?>) typedValue )
+                freeze( element, interner );
+    }
+
+    private int indexOf( Object name ) {
+        for ( int i = 0; i < names.length; i++ )
+            if ( names[i].equals( name ) )
+                return i;
+        return -1;
+    }
+
+    private void ensureIsNotFrozen() {
+        if ( frozen )
+            throw new UnsupportedOperationException( "Annotation values were frozen" );
+    }
+
+    @Override
+    public synchronized int size() {
+        return names.length;
+    }
+
+    @Override
+    public synchronized boolean containsKey( Object name ) {
+        return indexOf( name ) >= 0;
+    }
+
+    @Override
+    public synchronized Object get( Object name ) {
+        val index = indexOf( name );
+        return index >= 0 ? getRaw( index ) : null;
+    }
+
+    /**
+     * Redefines a parameter. Its typed value will be the given value itself.
+     */
+    @Override
+    public synchronized Object put( String name, Object value ) {
+        ensureIsNotFrozen();
+        int index = indexOf( name );
+        Object previous = null;
+        if ( index >= 0 )
+            previous = getRaw( index );
+        else {
+            index = names.length;
+            names = Arrays.copyOf( names, index + 1 );
+            values = Arrays.copyOf( values, index + 1 );
+            rawValues = Arrays.copyOf( rawValues, index + 1 );
+            typedValues = Arrays.copyOf( typedValues, index + 1 );
+            names[index] = name;
+        }
+        values[index] = null;
+        rawValues[index] = value;
+        typedValues[index] = value;
+        return previous;
+    }
+
+    @Override
+    public synchronized Object remove( Object name ) {
+        ensureIsNotFrozen();
+        val index = indexOf( name );
+        if ( index < 0 )
+            return null;
+
+        val previous = getRaw( index );
+        names = without( names, index );
+        values = without( values, index );
+        rawValues = without( rawValues, index );
+        typedValues = without( typedValues, index );
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        ensureIsNotFrozen();
+        names = new String[0];
+        values = new AnnotationValue[0];
+        rawValues = new Object[0];
+        typedValues = new Object[0];
+    }
+
+    private static <T> T[] without( T[] array, int index ) {
+        val copy = Arrays.copyOf( array, array.length - 1 );
+        System.arraycopy( array, index + 1, copy, index, array.length - index - 1 );
+        return copy;
+    }
+
+    /**
+     * @return a snapshot of the parameters. Changing it doesn't change this map.
+     */
+    @Override
+    public synchronized Set<Entry<String, Object>> entrySet() {
+        val entries = new LinkedHashMap<String, Object>();
+        for ( int i = 0; i < names.length; i++ )
+            entries.put( names[i], getRaw( i ) );
+        return Collections.unmodifiableMap( entries ).entrySet();
+    }
+
+    class TypedValueVisitor extends SimpleAnnotationValueVisitor8<Object, Void> {
+
+        @Override
+        protected Object defaultAction( Object value, Void unused ) {
+            return value;
+        }
+
+        @Override
+        public Object visitType( TypeMirror type, Void unused ) {
+            return new SimplifiedAST.ClassLiteral( namePool.intern( type.toString() ) );
+        }
+
+        @Override
+        public Object visitEnumConstant( VariableElement constant, Void unused ) {
+            return new SimplifiedAST.EnumConstant(
+                namePool.intern( constant.asType().toString() ),
+                namePool.intern( constant.getSimpleName().toString() ) );
+        }
+
+        @Override
+        public Object visitAnnotation( AnnotationMirror annotation, Void unused ) {
+            return annotationFactory.apply( annotation );
+        }
+
+        @Override
+        public Object visitArray( List<? extends AnnotationValue> values, Void unused ) {
+            val elements = new ArrayList<Object>( values.size() );
+            for ( val value : values )
+                elements.add( value.accept( this, null ) );
+            return Collections.unmodifiableList( elements );
+        }
+    }
+}
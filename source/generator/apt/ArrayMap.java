@@ -0,0 +1,92 @@
+package generator.apt;
+
+import lombok.val;
+
+import java.util.*;
+
+/**
+ * An immutable map backed by two arrays, keeping the iteration order of the map
+ * it was copied from. Lookups are linear, so it should only hold a few entries,
+ * such as annotation parameters.
+ */
+@SuppressWarnings("unchecked")
+final class ArrayMap<K, V> extends AbstractMap<K, V> {
+
+    final Object[] keys;
+    final Object[] values;
+
+    private ArrayMap(Map<? extends K, ? extends V> map) {
+        keys = new Object[map.size()];
+        values = new Object[map.size()];
+        int i = 0;
+        for (val entry : map.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i++] = entry.getValue();
+        }
+    }
+
+    /**
+     * @return an immutable copy of the given map, or the shared empty map if it has no entries
+     */
+    static <K, V> Map<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map.isEmpty())
+            return Collections.emptyMap();
+        if (map instanceof ArrayMap)
+            return (Map<K, V>) map;
+        return new ArrayMap<>(map);
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        val index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < keys.length; i++)
+            if (Objects.equals(keys[i], key))
+                return i;
+        return -1;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    int cursor = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return cursor < keys.length;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (cursor >= keys.length)
+                            throw new NoSuchElementException();
+                        val entry = new SimpleImmutableEntry<K, V>((K) keys[cursor], (V) values[cursor]);
+                        cursor++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package generator.apt;
+
+import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
+import lombok.Getter;
+
+/**
+ * A {@link DefaultMustacheFactory} keeping its compiled templates in a {@link TemplateCache}
+ * instead of its own unbounded cache, so the amount of templates held is bounded and
+ * cache hits and misses can be measured. As every {@link RenderingBackend} holds a single
+ * factory, templates are parsed once per JVM regardless of how many generators or
+ * annotation processing rounds need them.
+ */
+public class BoundedMustacheFactory extends DefaultMustacheFactory {
+
+    @Getter
+    final TemplateCache templateCache;
+
+    public BoundedMustacheFactory() {
+        this( TemplateCache.DEFAULT_MAX_SIZE );
+    }
+
+    public BoundedMustacheFactory( int maxSize ) {
+        this.templateCache = new TemplateCache( maxSize );
+    }
+
+    @Override
+    public Mustache compile( String name ) {
+        return templateCache.compile( name, this::compileUncached );
+    }
+
+    private Mustache compileUncached( String name ) {
+        return compile( getReader( name ), name );
+    }
+}
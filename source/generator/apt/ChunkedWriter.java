@@ -0,0 +1,131 @@
+package generator.apt;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A buffered {@link Writer} that hands its content over to the wrapped writer
+ * in fixed-size chunks, so a rendered file never needs to be fully held in memory.
+ *
+ * Chunk buffers are borrowed from the current thread and given back once the
+ * writer is closed. Thus, rendering several files in a row from the same thread
+ * reuses the very same buffer.
+ */
+public class ChunkedWriter extends Writer {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+
+    static final ThreadLocal<char[]> AVAILABLE_BUFFERS = new ThreadLocal<>();
+
+    final Writer target;
+    final FlushPolicy flushPolicy;
+    char[] buffer;
+    int position = 0;
+
+    public ChunkedWriter( Writer target ) {
+        this( target, DEFAULT_CHUNK_SIZE, FlushPolicy.ON_CLOSE );
+    }
+
+    public ChunkedWriter( Writer target, int chunkSize, FlushPolicy flushPolicy ) {
+        if ( chunkSize < 1 )
+            throw new IllegalArgumentException( "chunkSize should be greater than zero: " + chunkSize );
+        this.target = target;
+        this.flushPolicy = flushPolicy;
+        this.buffer = borrowBuffer( chunkSize );
+    }
+
+    @Override
+    public void write( int c ) throws IOException {
+        ensureIsOpen();
+        buffer[position++] = (char) c;
+        if ( position == buffer.length )
+            writeChunk();
+    }
+
+    @Override
+    public void write( char[] chars, int offset, int length ) throws IOException {
+        ensureIsOpen();
+        while ( length > 0 ) {
+            final int copied = Math.min( length, buffer.length - position );
+            System.arraycopy( chars, offset, buffer, position, copied );
+            position += copied;
+            offset += copied;
+            length -= copied;
+            if ( position == buffer.length )
+                writeChunk();
+        }
+    }
+
+    @Override
+    public void write( String str, int offset, int length ) throws IOException {
+        ensureIsOpen();
+        while ( length > 0 ) {
+            final int copied = Math.min( length, buffer.length - position );
+            str.getChars( offset, offset + copied, buffer, position );
+            position += copied;
+            offset += copied;
+            length -= copied;
+            if ( position == buffer.length )
+                writeChunk();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureIsOpen();
+        writeChunk();
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if ( buffer == null )
+            return;
+        try {
+            writeChunk();
+            target.flush();
+        } finally {
+            giveBufferBack( buffer );
+            buffer = null;
+            target.close();
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        if ( position == 0 )
+            return;
+        target.write( buffer, 0, position );
+        position = 0;
+        if ( flushPolicy == FlushPolicy.EVERY_CHUNK )
+            target.flush();
+    }
+
+    private void ensureIsOpen() throws IOException {
+        if ( buffer == null )
+            throw new IOException( "Writer already closed" );
+    }
+
+    private static char[] borrowBuffer( int chunkSize ) {
+        final char[] available = AVAILABLE_BUFFERS.get();
+        if ( available == null || available.length != chunkSize )
+            return new char[chunkSize];
+        AVAILABLE_BUFFERS.remove();
+        return available;
+    }
+
+    private static void giveBufferBack( char[] buffer ) {
+        AVAILABLE_BUFFERS.set( buffer );
+    }
+
+    /**
+     * Defines when the wrapped writer is asked to flush its content.
+     */
+    public enum FlushPolicy {
+
+        /** Only flushes when the writer is explicitly flushed or closed. */
+        ON_CLOSE,
+
+        /** Flushes every time a chunk is handed over to the wrapped writer. */
+        EVERY_CHUNK
+    }
+}
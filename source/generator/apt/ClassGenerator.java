@@ -1,24 +1,104 @@
 package generator.apt;
 
-import com.github.mustachejava.DefaultMustacheFactory;
 import com.github.mustachejava.MustacheFactory;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.val;
 
+import javax.annotation.processing.Filer;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 
 @RequiredArgsConstructor
 public class ClassGenerator {
 
-    final MustacheFactory mf = new DefaultMustacheFactory();
+    static final MustacheFactory DEFAULT_FACTORY = RenderingBackend.REFLECTION.getFactory();
+
+    final MustacheFactory mf;
     final String templateName;
 
+    /**
+     * Size of the chunks handed over to generated files when writing
+     * through {@link #write(JavaFileObject, SimplifiedAST.Type)}.
+     */
+    @Getter @Setter
+    int chunkSize = ChunkedWriter.DEFAULT_CHUNK_SIZE;
+
+    @Getter @Setter
+    ChunkedWriter.FlushPolicy flushPolicy = ChunkedWriter.FlushPolicy.ON_CLOSE;
+
+    public ClassGenerator( String templateName ) {
+        this( DEFAULT_FACTORY, templateName );
+    }
+
     public void write( Writer writer, SimplifiedAST.Type type ){
-        val mustache = mf.compile(templateName);
+        val mustache = mf.compile( templateName );
         mustache.execute( writer, type );
     }
 
+    /**
+     * Renders the template straight into the given file, in chunks of
+     * {@link #getChunkSize()} characters. The file is closed afterwards.
+     *
+     * @param file the file where the rendered template will be written at
+     * @param type the type used as template scope
+     * @throws IOException If the file could not be written
+     */
+    public void write( JavaFileObject file, SimplifiedAST.Type type ) throws IOException {
+        try ( Writer writer = new ChunkedWriter( file.openWriter(), chunkSize, flushPolicy ) ) {
+            write( writer, type );
+        }
+    }
+
+    /**
+     * Creates a source file through the {@link Filer} and renders the template into it.
+     * The type originating element is reported to the {@link Filer}, allowing incremental
+     * builds to track the generated file.
+     *
+     * @param filer the filer where the class will be created at
+     * @param className the canonical name of the generated class
+     * @param type the type used as template scope
+     * @throws IOException If the file could not be written
+     */
+    public void write( Filer filer, String className, SimplifiedAST.Type type ) throws IOException {
+        write( filer.createSourceFile( className, type.getOriginatingElements() ), type );
+    }
+
+    void writeSource( Filer filer, String className, SimplifiedAST.Type type, String content ) throws IOException {
+        try ( Writer writer = filer.createSourceFile( className, type.getOriginatingElements() ).openWriter() ) {
+            writer.write( content );
+        }
+    }
+
+    /**
+     * Renders the template into memory.
+     *
+     * @param type the type used as template scope
+     * @return the rendered content
+     */
+    public String render( SimplifiedAST.Type type ){
+        val writer = new StringWriter();
+        write( writer, type );
+        return writer.toString();
+    }
+
     public static ClassGenerator with( String templateName ) {
         return new ClassGenerator( templateName );
     }
+
+    /**
+     * @param templateName the template used to generate classes
+     * @param backend how the template will read values from the model
+     * @return a generator sharing compiled templates with every other generator using the same backend
+     */
+    public static ClassGenerator with( String templateName, RenderingBackend backend ) {
+        return new ClassGenerator( backend.getFactory(), templateName );
+    }
+
+    public static ClassGenerator with( String templateName, MustacheFactory mf ) {
+        return new ClassGenerator( mf, templateName );
+    }
 }
@@ -0,0 +1,130 @@
+package generator.apt;
+
+import generator.apt.SimplifiedAPTRunner.APTResult;
+import generator.apt.SimplifiedAPTRunner.Config;
+import lombok.Value;
+import lombok.val;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.processing.Processor;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Runs many annotation processing jobs concurrently, on a bounded pool of threads.
+ *
+ * Each worker thread owns its own {@link SimplifiedAPTRunner}, kept warm between the
+ * jobs it runs, thus jobs never share file managers or diagnostics. Jobs do share
+ * the configured directories, though: unless {@link Config#inMemory} is enabled,
+ * concurrent jobs generating the same files will overwrite each other's output.
+ */
+public class ConcurrentAPTRunner implements AutoCloseable {
+
+	final Config config;
+	final JavaCompiler compiler;
+	final ExecutorService executor;
+	final List<SimplifiedAPTRunner> runners = Collections.synchronizedList( new ArrayList<>() );
+	final ThreadLocal<SimplifiedAPTRunner> workerRunner = ThreadLocal.withInitial( this::createRunner );
+
+	public ConcurrentAPTRunner( Config config, JavaCompiler compiler, int threads ) {
+		this.config = config;
+		this.compiler = compiler;
+		this.executor = createExecutor( threads );
+	}
+
+	/**
+	 * Schedules a job to be run.
+	 *
+	 * @param job the job to be run
+	 * @return the future result of the job
+	 */
+	public Future<APTResult> submit( Job job ) {
+		return executor.submit( () -> workerRunner.get().run( job.compilationUnits, job.processors ) );
+	}
+
+	/**
+	 * Schedules the given jobs to be run.
+	 *
+	 * @param jobs the jobs to be run
+	 * @return the future results, in the same order jobs were given
+	 */
+	public List<Future<APTResult>> submitAll( List<Job> jobs ) {
+		val results = new ArrayList<Future<APTResult>>( jobs.size() );
+		for ( val job : jobs )
+			results.add( submit( job ) );
+		return results;
+	}
+
+	/**
+	 * Runs the given jobs, waiting for all of them to finish.
+	 *
+	 * @param jobs the jobs to be run
+	 * @return the results, in the same order jobs were given
+	 */
+	public List<APTResult> runAll( List<Job> jobs ) {
+		val results = new ArrayList<APTResult>( jobs.size() );
+		for ( val result : submitAll( jobs ) )
+			results.add( await( result ) );
+		return results;
+	}
+
+	/**
+	 * Stops the worker threads, and closes the runners they own.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+		synchronized ( runners ) {
+			for ( val runner : runners )
+				runner.close();
+			runners.clear();
+		}
+	}
+
+	private SimplifiedAPTRunner createRunner() {
+		val runner = new SimplifiedAPTRunner( config, compiler );
+		runners.add( runner );
+		return runner;
+	}
+
+	private static APTResult await( Future<APTResult> result ) {
+		try {
+			return result.get();
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException( e );
+		} catch ( ExecutionException e ) {
+			if ( e.getCause() instanceof RuntimeException )
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException( e.getCause() );
+		}
+	}
+
+	private static ExecutorService createExecutor( int threads ) {
+		final AtomicInteger counter = new AtomicInteger();
+		return Executors.newFixedThreadPool( Math.max( threads, 1 ), r -> {
+			final Thread thread = new Thread( r, "apt-runner-" + counter.incrementAndGet() );
+			thread.setDaemon( true );
+			return thread;
+		});
+	}
+
+	/**
+	 * A set of compilation units to be processed by a set of processors.
+	 * As processors are usually stateful, jobs should not share them.
+	 */
+	@Value
+	static public class Job {
+
+		final Iterable<? extends JavaFileObject> compilationUnits;
+		final Iterable<? extends Processor> processors;
+
+		public static Job of( Processor processor, JavaFileObject... compilationUnits ) {
+			return new Job( asList( compilationUnits ), Collections.singletonList( processor ) );
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package generator.apt;
+
+import generator.apt.SimplifiedAST.Type;
+import lombok.val;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link SimplifiedASTContext} where elements can be memorized from several
+ * threads at once, e.g. while scanning different root elements in parallel.
+ * Types are memorized in concurrent tables, and their fields and methods are
+ * added to synchronized lists.
+ *
+ * Types concurrently created from the same element are resolved to a single
+ * instance, although the element may be read more than once. Supertypes are
+ * always eagerly resolved, as lazily resolving them is not thread-safe: enabling
+ * {@link #setLazySupertypes(boolean) lazy supertypes} throws an
+ * {@link IllegalArgumentException}. Note that
+ * reading the same elements from several threads relies on the compiler's
+ * model being safe to read concurrently.
+ */
+public class ConcurrentSimplifiedASTContext extends SimplifiedASTContext {
+
+    /**
+     * Drains the memorized types. Types memorized while draining are
+     * either returned or kept for the next invocation.
+     */
+    @Override
+    public Collection<Type> getTypes() {
+        val types = new ArrayList<Type>();
+        for (val canonicalName : cachedTypes.keySet()) {
+            val type = cachedTypes.remove(canonicalName);
+            if (type != null)
+                types.add(type);
+        }
+        internedTypes = newTypeTable();
+        return prepare(types);
+    }
+
+    @Override
+    protected Map<String, Type> newTypeTable() {
+        return new ConcurrentHashMap<>();
+    }
+
+    @Override
+    protected <T> List<T> newMemberList() {
+        return Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @Override
+    public ConcurrentSimplifiedASTContext setLazySupertypes(boolean lazySupertypes) {
+        if (lazySupertypes)
+            throw new IllegalArgumentException("Supertypes can't be lazily resolved by a concurrent context");
+        super.setLazySupertypes(false);
+        return this;
+    }
+}
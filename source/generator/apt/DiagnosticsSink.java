@@ -0,0 +1,111 @@
+package generator.apt;
+
+import lombok.Value;
+import lombok.val;
+
+import java.util.*;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaFileObject;
+
+/**
+ * Collects the diagnostics reported during a compilation. Every diagnostic is counted,
+ * by kind and by source, but only the first ones of each kind are retained. When
+ * configured to keep errors only, other diagnostics are discarded as soon as they
+ * are reported, and only the first error is retained.
+ */
+public class DiagnosticsSink implements DiagnosticListener<JavaFileObject> {
+
+	static final Diagnostic.Kind[] KINDS = Diagnostic.Kind.values();
+
+	final int maxPerKind;
+	final boolean errorsOnly;
+
+	final int[] counts = new int[KINDS.length];
+	final int[] retainedCounts = new int[KINDS.length];
+	final Map<String, int[]> countsPerSource = new LinkedHashMap<>();
+	final List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+
+	public DiagnosticsSink( int maxPerKind, boolean errorsOnly ) {
+		if ( maxPerKind < 1 )
+			throw new IllegalArgumentException( "At least one diagnostic per kind should be retained" );
+		this.maxPerKind = errorsOnly ? 1 : maxPerKind;
+		this.errorsOnly = errorsOnly;
+	}
+
+	@Override
+	public void report( Diagnostic<? extends JavaFileObject> diagnostic ) {
+		val kind = diagnostic.getKind();
+		if ( errorsOnly && kind != Diagnostic.Kind.ERROR )
+			return;
+
+		val ordinal = kind.ordinal();
+		counts[ordinal]++;
+		val source = diagnostic.getSource();
+		if ( source != null )
+			countsPerSource.computeIfAbsent( source.getName(), k -> new int[KINDS.length] )[ordinal]++;
+
+		if ( retainedCounts[ordinal] < maxPerKind ) {
+			retainedCounts[ordinal]++;
+			diagnostics.add( diagnostic );
+		}
+	}
+
+	/**
+	 * @return the retained diagnostics, in the order they were reported
+	 */
+	public List<Diagnostic<? extends JavaFileObject>> getDiagnostics() {
+		return Collections.unmodifiableList( diagnostics );
+	}
+
+	public Summary getSummary() {
+		val countsPerSource = new LinkedHashMap<String, Map<Diagnostic.Kind, Integer>>();
+		for ( val entry : this.countsPerSource.entrySet() )
+			countsPerSource.put( entry.getKey(), asMap( entry.getValue() ) );
+		return new Summary( asMap( counts ), Collections.unmodifiableMap( countsPerSource ) );
+	}
+
+	/**
+	 * Creates a sink that retains every given diagnostic.
+	 */
+	public static DiagnosticsSink of( Iterable<Diagnostic<? extends JavaFileObject>> diagnostics ) {
+		val sink = new DiagnosticsSink( Integer.MAX_VALUE, false );
+		for ( val diagnostic : diagnostics )
+			sink.report( diagnostic );
+		return sink;
+	}
+
+	private static Map<Diagnostic.Kind, Integer> asMap( int[] counts ) {
+		val map = new EnumMap<Diagnostic.Kind, Integer>( Diagnostic.Kind.class );
+		for ( int i = 0; i < counts.length; i++ )
+			if ( counts[i] > 0 )
+				map.put( KINDS[i], counts[i] );
+		return Collections.unmodifiableMap( map );
+	}
+
+	/**
+	 * How many diagnostics were reported, by kind and by source name. Diagnostics
+	 * without a source are only part of the overall counts.
+	 */
+	@Value
+	public static class Summary {
+
+		final Map<Diagnostic.Kind, Integer> counts;
+		final Map<String, Map<Diagnostic.Kind, Integer>> countsPerSource;
+
+		public int getCount( Diagnostic.Kind kind ) {
+			return counts.getOrDefault( kind, 0 );
+		}
+
+		public int getErrorCount() {
+			return getCount( Diagnostic.Kind.ERROR );
+		}
+
+		public int getTotalCount() {
+			int total = 0;
+			for ( val count : counts.values() )
+				total += count;
+			return total;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package generator.apt;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.val;
+
+import javax.annotation.processing.Filer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Generates classes from memorized types, rendering their templates in parallel.
+ *
+ * Types are rendered into in-memory buffers by a pool of {@link #getWorkers()} threads,
+ * while the generated files are created through the {@link Filer} by the thread that
+ * called {@link #generate(Filer, Collection)}, in the same order types were given.
+ * Files are written as {@link ClassGenerator#write(Filer, String, SimplifiedAST.Type)}
+ * would do.
+ * As the compiler model is not thread-safe, supertypes of lazily resolved types, and
+ * annotation values read from the compiler, are loaded before the rendering starts
+ * (see {@link SimplifiedAST.Type#materialize()}).
+ */
+@RequiredArgsConstructor
+public class GenerationPipeline {
+
+    final ClassGenerator generator;
+    final Function<SimplifiedAST.Type, String> classNameResolver;
+
+    /**
+     * The maximum amount of threads used to render the templates.
+     */
+    @Getter @Setter
+    int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Renders and writes a class for each given type.
+     *
+     * @param filer the filer where generated classes will be created at
+     * @param types the types to be generated
+     * @throws IOException If a generated class could not be written
+     */
+    public void generate( Filer filer, Collection<SimplifiedAST.Type> types ) throws IOException {
+        if ( types.isEmpty() )
+            return;
+
+        for ( val type : types )
+            type.materialize();
+
+        val executor = createExecutor( Math.min( workers, types.size() ) );
+        try {
+            val renderedTypes = new ArrayList<Future<String>>( types.size() );
+            for ( val type : types )
+                renderedTypes.add( executor.submit( () -> generator.render( type ) ) );
+            writeAll( filer, types, renderedTypes );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void writeAll( Filer filer, Collection<SimplifiedAST.Type> types, List<Future<String>> renderedTypes ) throws IOException {
+        int i = 0;
+        for ( val type : types ) {
+            val content = await( renderedTypes.get( i++ ) );
+            generator.writeSource( filer, classNameResolver.apply( type ), type, content );
+        }
+    }
+
+    private static String await( Future<String> renderedType ) {
+        try {
+            return renderedType.get();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( e );
+        } catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException )
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException( e.getCause() );
+        }
+    }
+
+    private static ExecutorService createExecutor( int threads ) {
+        val counter = new AtomicInteger();
+        return Executors.newFixedThreadPool( Math.max( threads, 1 ), r -> {
+            final Thread thread = new Thread( r, "class-generator-" + counter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        });
+    }
+
+    public static GenerationPipeline with( ClassGenerator generator, Function<SimplifiedAST.Type, String> classNameResolver ) {
+        return new GenerationPipeline( generator, classNameResolver );
+    }
+}
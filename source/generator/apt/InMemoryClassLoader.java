@@ -0,0 +1,52 @@
+package generator.apt;
+
+import lombok.val;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Loads classes, and reads resources, from files kept in memory by an {@link InMemoryFileManager}.
+ * Classes are only loaded from these files when the parent class loader can't find them.
+ * Closing it releases the files it holds: classes already loaded remain usable, but no
+ * other class or resource can be read from them.
+ */
+public class InMemoryClassLoader extends ClassLoader implements Closeable {
+
+	final Map<String, byte[]> files = new ConcurrentHashMap<>();
+
+	public InMemoryClassLoader( List<InMemoryFileManager.InMemoryFile> generatedFiles, ClassLoader parent ) {
+		super( parent );
+		for ( val file : generatedFiles )
+			if ( StandardLocation.CLASS_OUTPUT.equals( file.getLocation() ) )
+				files.put( file.getPath(), file.getBytes() );
+	}
+
+	@Override
+	protected Class<?> findClass( String name ) throws ClassNotFoundException {
+		val bytes = files.get( name.replace( '.', '/' ) + JavaFileObject.Kind.CLASS.extension );
+		if ( bytes == null )
+			throw new ClassNotFoundException( name );
+		return defineClass( name, bytes, 0, bytes.length );
+	}
+
+	@Override
+	public InputStream getResourceAsStream( String name ) {
+		val stream = super.getResourceAsStream( name );
+		if ( stream != null )
+			return stream;
+		val bytes = files.get( name );
+		return bytes != null ? new ByteArrayInputStream( bytes ) : null;
+	}
+
+	@Override
+	public void close() {
+		files.clear();
+	}
+}
@@ -0,0 +1,238 @@
+package generator.apt;
+
+import lombok.val;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import javax.tools.*;
+
+/**
+ * A {@link JavaFileManager} that keeps files written into some of its
+ * output locations in memory, rather than on the filesystem. Any other
+ * location is handled by the wrapped file manager.
+ */
+public class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+	final Set<Location> inMemoryLocations;
+	final Map<URI, InMemoryFile> files = new LinkedHashMap<>();
+
+	public InMemoryFileManager( StandardJavaFileManager fileManager, Location... inMemoryLocations ) {
+		super( fileManager );
+		this.inMemoryLocations = new HashSet<>( Arrays.asList( inMemoryLocations ) );
+	}
+
+	@Override
+	public JavaFileObject getJavaFileForOutput( Location location, String className, JavaFileObject.Kind kind, FileObject sibling ) throws IOException {
+		if ( !inMemoryLocations.contains( location ) )
+			return super.getJavaFileForOutput( location, className, kind, sibling );
+		return fileFor( location, className.replace( '.', '/' ) + kind.extension, kind );
+	}
+
+	@Override
+	public FileObject getFileForOutput( Location location, String packageName, String relativeName, FileObject sibling ) throws IOException {
+		if ( !inMemoryLocations.contains( location ) )
+			return super.getFileForOutput( location, packageName, relativeName, sibling );
+		return fileFor( location, pathOf( packageName, relativeName ), kindOf( relativeName ) );
+	}
+
+	/**
+	 * Used by the compiler, instead of {@link #getJavaFileForOutput}, since JDK 18.
+	 * Intentionally not annotated with {@link Override}, as it doesn't exist on earlier JDKs.
+	 */
+	public JavaFileObject getJavaFileForOutputForOriginatingFiles( Location location, String className, JavaFileObject.Kind kind, FileObject... originatingFiles ) throws IOException {
+		return getJavaFileForOutput( location, className, kind, siblingFrom( originatingFiles ) );
+	}
+
+	/**
+	 * Used by the compiler, instead of {@link #getFileForOutput}, since JDK 18.
+	 * Intentionally not annotated with {@link Override}, as it doesn't exist on earlier JDKs.
+	 */
+	public FileObject getFileForOutputForOriginatingFiles( Location location, String packageName, String relativeName, FileObject... originatingFiles ) throws IOException {
+		return getFileForOutput( location, packageName, relativeName, siblingFrom( originatingFiles ) );
+	}
+
+	@Override
+	public FileObject getFileForInput( Location location, String packageName, String relativeName ) throws IOException {
+		if ( !inMemoryLocations.contains( location ) )
+			return super.getFileForInput( location, packageName, relativeName );
+		return getWrittenFile( location, pathOf( packageName, relativeName ) );
+	}
+
+	@Override
+	public JavaFileObject getJavaFileForInput( Location location, String className, JavaFileObject.Kind kind ) throws IOException {
+		if ( !inMemoryLocations.contains( location ) )
+			return super.getJavaFileForInput( location, className, kind );
+		return getWrittenFile( location, className.replace( '.', '/' ) + kind.extension );
+	}
+
+	@Override
+	public Iterable<JavaFileObject> list( Location location, String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse ) throws IOException {
+		if ( !inMemoryLocations.contains( location ) )
+			return super.list( location, packageName, kinds, recurse );
+
+		val packagePath = packageName.isEmpty() ? "" : packageName.replace( '.', '/' ) + "/";
+		val found = new ArrayList<JavaFileObject>();
+		synchronized ( files ) {
+			for ( val file : files.values() ) {
+				if ( file.isWritten() && file.location.equals( location ) && kinds.contains( file.getKind() )
+				&&   file.path.startsWith( packagePath )
+				&&   ( recurse || file.path.indexOf( '/', packagePath.length() ) < 0 ) )
+					found.add( file );
+			}
+		}
+		return found;
+	}
+
+	@Override
+	public String inferBinaryName( Location location, JavaFileObject file ) {
+		if ( file instanceof InMemoryFile ) {
+			val path = ((InMemoryFile) file).path;
+			return path.substring( 0, path.lastIndexOf( '.' ) ).replace( '/', '.' );
+		}
+		return super.inferBinaryName( location, file );
+	}
+
+	@Override
+	public boolean isSameFile( FileObject a, FileObject b ) {
+		if ( a instanceof InMemoryFile || b instanceof InMemoryFile )
+			return a.toUri().equals( b.toUri() );
+		return super.isSameFile( a, b );
+	}
+
+	@Override
+	public boolean hasLocation( Location location ) {
+		return inMemoryLocations.contains( location ) || super.hasLocation( location );
+	}
+
+	/**
+	 * @param location the location the file was written into
+	 * @param path the file path, relative to the location
+	 * @return the file, or null if it was not written
+	 */
+	public InMemoryFile getWrittenFile( Location location, String path ) {
+		synchronized ( files ) {
+			val file = files.get( uriOf( location, path ) );
+			return file != null && file.isWritten() ? file : null;
+		}
+	}
+
+	/**
+	 * @return every file written so far, in the order they were created.
+	 */
+	public List<InMemoryFile> getWrittenFiles() {
+		val written = new ArrayList<InMemoryFile>();
+		synchronized ( files ) {
+			for ( val file : files.values() )
+				if ( file.isWritten() )
+					written.add( file );
+		}
+		return written;
+	}
+
+	/**
+	 * Discards every file kept in memory.
+	 */
+	public void clear() {
+		synchronized ( files ) {
+			files.clear();
+		}
+	}
+
+	private InMemoryFile fileFor( Location location, String path, JavaFileObject.Kind kind ) {
+		val uri = uriOf( location, path );
+		synchronized ( files ) {
+			return files.computeIfAbsent( uri, u -> new InMemoryFile( u, kind, location, path ) );
+		}
+	}
+
+	private static FileObject siblingFrom( FileObject[] originatingFiles ) {
+		return originatingFiles != null && originatingFiles.length == 1 ? originatingFiles[0] : null;
+	}
+
+	private static URI uriOf( Location location, String path ) {
+		return URI.create( "mem:///" + location.getName() + "/" + path );
+	}
+
+	private static String pathOf( String packageName, String relativeName ) {
+		return packageName.isEmpty() ? relativeName : packageName.replace( '.', '/' ) + "/" + relativeName;
+	}
+
+	private static JavaFileObject.Kind kindOf( String relativeName ) {
+		for ( val kind : JavaFileObject.Kind.values() )
+			if ( kind != JavaFileObject.Kind.OTHER && relativeName.endsWith( kind.extension ) )
+				return kind;
+		return JavaFileObject.Kind.OTHER;
+	}
+
+	/**
+	 * A file whose content is kept in memory.
+	 */
+	static public class InMemoryFile extends SimpleJavaFileObject {
+
+		final Location location;
+		final String path;
+		volatile byte[] content;
+
+		InMemoryFile( URI uri, Kind kind, Location location, String path ) {
+			super( uri, kind );
+			this.location = location;
+			this.path = path;
+		}
+
+		public Location getLocation() {
+			return location;
+		}
+
+		/**
+		 * @return the file path, relative to its location
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		public boolean isWritten() {
+			return content != null;
+		}
+
+		/**
+		 * @return the file content, or null if it was not written
+		 */
+		public byte[] getBytes() {
+			return content;
+		}
+
+		@Override
+		public InputStream openInputStream() throws IOException {
+			val bytes = content;
+			if ( bytes == null )
+				throw new FileNotFoundException( toUri().toString() );
+			return new ByteArrayInputStream( bytes );
+		}
+
+		@Override
+		public OutputStream openOutputStream() {
+			return new ByteArrayOutputStream() {
+				@Override
+				public void close() throws IOException {
+					super.close();
+					content = toByteArray();
+				}
+			};
+		}
+
+		@Override
+		public Writer openWriter() {
+			return new OutputStreamWriter( openOutputStream(), StandardCharsets.UTF_8 );
+		}
+
+		@Override
+		public CharSequence getCharContent( boolean ignoreEncodingErrors ) throws IOException {
+			val bytes = content;
+			if ( bytes == null )
+				throw new FileNotFoundException( toUri().toString() );
+			return new String( bytes, StandardCharsets.UTF_8 );
+		}
+	}
+}
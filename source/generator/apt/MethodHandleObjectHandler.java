@@ -0,0 +1,129 @@
+package generator.apt;
+
+import com.github.mustachejava.MustacheException;
+import com.github.mustachejava.reflect.ReflectionObjectHandler;
+import com.github.mustachejava.util.GuardException;
+import com.github.mustachejava.util.Wrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves template tags read from {@link SimplifiedAST} types through {@link MethodHandle}s.
+ * Members are looked up just like {@link ReflectionObjectHandler} does, but only once per
+ * class and tag name, and are invoked without reflection afterwards. Dotted names, and tags
+ * read from any other object, are left to {@link ReflectionObjectHandler}.
+ */
+class MethodHandleObjectHandler extends ReflectionObjectHandler {
+
+    static final MethodType ACCESSOR_TYPE = MethodType.methodType( Object.class, Object.class );
+
+    static final ClassValue<Boolean> MODEL_SHAPES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue( Class<?> type ) {
+            for ( Class<?> current = type; current != null; current = current.getSuperclass() )
+                if ( current.getEnclosingClass() == SimplifiedAST.class )
+                    return true;
+            return false;
+        }
+    };
+
+    static final ClassValue<Map<String, Optional<MethodHandle>>> ACCESSORS = new ClassValue<Map<String, Optional<MethodHandle>>>() {
+        @Override
+        protected Map<String, Optional<MethodHandle>> computeValue( Class<?> type ) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    @Override
+    public Wrapper find( String name, List<Object> scopes ) {
+        if ( name.indexOf( '.' ) >= 0 )
+            return super.find( name, scopes );
+
+        val classes = new Class<?>[scopes.size()];
+        for ( int i = classes.length - 1; i >= 0; i-- ) {
+            val scope = scopes.get( i );
+            if ( scope == null )
+                continue;
+
+            val scopeClass = scope.getClass();
+            if ( !MODEL_SHAPES.get( scopeClass ) )
+                return super.find( name, scopes );
+
+            classes[i] = scopeClass;
+            val accessor = accessorOf( scopeClass, name );
+            if ( accessor != null )
+                return new AccessorWrapper( name, i, classes, accessor );
+        }
+        return super.find( name, scopes );
+    }
+
+    private MethodHandle accessorOf( Class<?> scopeClass, String name ) {
+        return ACCESSORS.get( scopeClass )
+            .computeIfAbsent( name, n -> Optional.ofNullable( createAccessor( scopeClass, n ) ) )
+            .orElse( null );
+    }
+
+    private MethodHandle createAccessor( Class<?> scopeClass, String name ) {
+        val member = findMember( scopeClass, name );
+        if ( member == null )
+            return null;
+        try {
+            val lookup = MethodHandles.lookup();
+            final MethodHandle handle;
+            final boolean isStatic;
+            if ( member instanceof Method ) {
+                handle = lookup.unreflect( (Method) member );
+                isStatic = Modifier.isStatic( ((Method) member).getModifiers() );
+            } else {
+                handle = lookup.unreflectGetter( (Field) member );
+                isStatic = Modifier.isStatic( ((Field) member).getModifiers() );
+            }
+            return ( isStatic ? MethodHandles.dropArguments( handle, 0, Object.class ) : handle ).asType( ACCESSOR_TYPE );
+        } catch ( IllegalAccessException e ) {
+            throw new MustacheException( "Could not access " + member, e );
+        }
+    }
+
+    /**
+     * Invokes an accessor over the scope it was found in, as long as the
+     * scopes still have the same classes they had when it was found.
+     */
+    @RequiredArgsConstructor
+    static class AccessorWrapper implements Wrapper {
+
+        final String name;
+        final int scopeIndex;
+        final Class<?>[] classes;
+        final MethodHandle accessor;
+
+        @Override
+        public Object call( List<Object> scopes ) throws GuardException {
+            if ( scopes.size() != classes.length )
+                throw new GuardException();
+            for ( int i = scopeIndex; i < classes.length; i++ ) {
+                val scope = scopes.get( i );
+                if ( ( scope == null ? null : scope.getClass() ) != classes[i] )
+                    throw new GuardException();
+            }
+
+            try {
+                return accessor.invokeExact( scopes.get( scopeIndex ) );
+            } catch ( RuntimeException e ) {
+                throw e;
+            } catch ( Throwable e ) {
+                throw new MustacheException( "Failed to get value for " + name, e );
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package generator.apt;
+
+import lombok.val;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interns names, such as type and annotation names, read by a {@link SimplifiedASTContext},
+ * so each distinct name is retained only once no matter how many elements refer to it.
+ * Unlike {@link String#intern()}, names are only kept as long as the pool is.
+ */
+public class NamePool {
+
+    final Map<String, String> names = new ConcurrentHashMap<>();
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param name the name to be interned
+     * @return the pooled instance equal to {@code name}, or {@code name} itself
+     * if it was not pooled yet. Null if {@code name} is null.
+     */
+    public String intern( String name ) {
+        if ( name == null )
+            return null;
+
+        val pooled = names.get( name );
+        if ( pooled != null ) {
+            hits.incrementAndGet();
+            return pooled;
+        }
+
+        misses.incrementAndGet();
+        val concurrentlyPooled = names.putIfAbsent( name, name );
+        return concurrentlyPooled != null ? concurrentlyPooled : name;
+    }
+
+    /**
+     * @return how many distinct names are pooled
+     */
+    public int size() {
+        return names.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the ratio of interned names that were already pooled, from 0 to 1
+     */
+    public double getHitRate() {
+        val hits = getHits();
+        val total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Discards every pooled name. Counters are kept untouched.
+     */
+    public void clear() {
+        names.clear();
+    }
+}
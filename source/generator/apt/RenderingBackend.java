@@ -0,0 +1,34 @@
+package generator.apt;
+
+import com.github.mustachejava.ObjectHandler;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * How templates read values from the {@link SimplifiedAST} model. Each backend holds
+ * a single {@link BoundedMustacheFactory}, so compiled templates are shared by every
+ * {@link ClassGenerator} using it.
+ */
+@RequiredArgsConstructor
+public enum RenderingBackend {
+
+    /**
+     * Mustache.java default behaviour, resolving every tag by reflection.
+     */
+    REFLECTION( new BoundedMustacheFactory() ),
+
+    /**
+     * Resolves tags read from {@link SimplifiedAST} types through {@link java.lang.invoke.MethodHandle}s,
+     * bound to their accessors the first time each tag is rendered. Other values are resolved
+     * by reflection, so it renders exactly as {@link #REFLECTION} does.
+     */
+    METHOD_HANDLES( withObjectHandler( new BoundedMustacheFactory(), new MethodHandleObjectHandler() ) );
+
+    @Getter
+    final BoundedMustacheFactory factory;
+
+    private static BoundedMustacheFactory withObjectHandler( BoundedMustacheFactory factory, ObjectHandler objectHandler ) {
+        factory.setObjectHandler( objectHandler );
+        return factory;
+    }
+}
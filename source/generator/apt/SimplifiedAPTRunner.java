@@ -1,29 +1,44 @@
 package generator.apt;
 
-import lombok.Value;
-import lombok.val;
+import lombok.*;
 
 import java.io.*;
 import java.net.URI;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 import javax.annotation.processing.Processor;
 import javax.tools.*;
 import javax.tools.JavaCompiler.CompilationTask;
 
 import static java.util.Arrays.asList;
 
-public class SimplifiedAPTRunner {
+/**
+ * Runs annotation processors against a set of compilation units.
+ *
+ * A runner can be used for as many compilations as needed: its file manager,
+ * and the classpath indexes it holds, stay warm between runs, while diagnostics
+ * are scoped to each run. Runners are not thread-safe, and should be closed
+ * once they are no longer needed.
+ */
+public class SimplifiedAPTRunner implements AutoCloseable {
 
-	final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
 	final List<String> compilerOptionsForProcOnly = asList( "-proc:only" );
 
 	final JavaCompiler compiler;
-	final StandardJavaFileManager fileManager;
 	final Config config;
 
+	JavaFileManager fileManager;
+	DiagnosticsSink diagnostics;
+	boolean closed = false;
+
 	public SimplifiedAPTRunner(Config config, JavaCompiler compiler ) {
 		this.config = config;
 		this.compiler = compiler;
@@ -36,19 +51,86 @@ public class SimplifiedAPTRunner {
 	}
 
 	public APTResult run(Iterable<? extends JavaFileObject> compilationUnits, Iterable<? extends Processor> processors) {
-		final CompilationTask task = compiler.getTask( null, fileManager, diagnostics, compilerOptionsForProcOnly, null, compilationUnits );
-		task.setProcessors( processors );
-		final boolean success = task.call();
-		final List<Diagnostic<? extends JavaFileObject>> generatedDiagnostics = diagnostics.getDiagnostics();
-		return new APTResult( success, generatedDiagnostics );
+		ensureIsOpen();
+		diagnostics = new DiagnosticsSink( config.maxDiagnosticsPerKind, config.errorsOnly );
+		if ( fileManager instanceof InMemoryFileManager )
+			((InMemoryFileManager) fileManager).clear();
+		try {
+			final List<String> options = config.compile ? Collections.emptyList() : compilerOptionsForProcOnly;
+			final CompilationTask task = compiler.getTask( null, fileManager, diagnostics, options, null, compilationUnits );
+			task.setProcessors( processors );
+			final boolean success = task.call();
+			return new APTResult( success, diagnostics.getDiagnostics(), generatedFiles(), diagnostics.getSummary() );
+		} finally {
+			diagnostics = null;
+		}
+	}
+
+	/**
+	 * Discards the caches held by this runner, e.g. classpath indexes,
+	 * so changes made to the configured directories are noticed by the
+	 * next run.
+	 */
+	public void reset() {
+		ensureIsOpen();
+		closeFileManager();
+		fileManager = createFileManager();
+	}
+
+	/**
+	 * Releases the resources held by this runner. It can't be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if ( !closed ) {
+			closed = true;
+			closeFileManager();
+		}
+	}
+
+	private void ensureIsOpen() {
+		if ( closed )
+			throw new IllegalStateException( "Runner already closed" );
 	}
 
-	private StandardJavaFileManager createFileManager() {
+	private void closeFileManager() {
 		try {
-			ensureThatConfigDirectoriesExists( config );
-			final StandardJavaFileManager fileManager = compiler.getStandardFileManager( diagnostics, null, null );
+			fileManager.close();
+		} catch ( final IOException e ) {
+			throw new IllegalStateException( e );
+		}
+	}
+
+	private List<InMemoryFileManager.InMemoryFile> generatedFiles() {
+		if ( fileManager instanceof InMemoryFileManager )
+			return ((InMemoryFileManager) fileManager).getWrittenFiles();
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Forwards diagnostics reported by the file manager to the current run, if any.
+	 */
+	private void reportFileManagerDiagnostic( Diagnostic<? extends JavaFileObject> diagnostic ) {
+		final DiagnosticsSink currentDiagnostics = diagnostics;
+		if ( currentDiagnostics != null )
+			currentDiagnostics.report( diagnostic );
+	}
+
+	private JavaFileManager createFileManager() {
+		try {
+			final StandardJavaFileManager fileManager = compiler.getStandardFileManager( this::reportFileManagerDiagnostic, null, null );
 			if ( config.classPath != null )
 				fileManager.setLocation( StandardLocation.CLASS_PATH, config.classPath );
+			if ( config.inMemory )
+				return new InMemoryFileManager( fileManager, StandardLocation.SOURCE_OUTPUT, StandardLocation.CLASS_OUTPUT );
+
+			ensureThatConfigDirectoriesExists( config );
+			if ( config.compile ) {
+				fileManager.setLocation( StandardLocation.SOURCE_PATH, config.sourceDir );
+				fileManager.setLocation( StandardLocation.SOURCE_OUTPUT, config.outputDir );
+				return new InMemoryFileManager( fileManager, StandardLocation.CLASS_OUTPUT );
+			}
+
 			fileManager.setLocation( StandardLocation.CLASS_OUTPUT, config.classOutputDir );
 			fileManager.setLocation( StandardLocation.SOURCE_PATH, config.sourceDir );
 			fileManager.setLocation( StandardLocation.SOURCE_OUTPUT, config.outputDir );
@@ -82,33 +164,125 @@ public class SimplifiedAPTRunner {
 		public List<File> classOutputDir = outputDir;
 		public List<File> classPath;
 
+		/**
+		 * When enabled, generated sources and classes are kept in memory,
+		 * and can be read through {@link APTResult}. The directories defined
+		 * in this configuration are ignored, except for {@link #classPath}.
+		 */
+		public boolean inMemory = false;
+
+		/**
+		 * When enabled, compilation units and generated sources are also compiled, in
+		 * the same compilation task that runs the processors. The compiled classes are
+		 * kept in memory, and can be loaded through {@link APTResult#getClassLoader()}.
+		 * {@link #classOutputDir} is ignored in this mode.
+		 */
+		public boolean compile = false;
+
+		/**
+		 * How many diagnostics of each kind are kept in {@link APTResult#getDiagnostics()}.
+		 * Every diagnostic is still counted in {@link APTResult#getSummary()}.
+		 */
+		public int maxDiagnosticsPerKind = 100;
+
+		/**
+		 * When enabled, every diagnostic but the first error is discarded.
+		 */
+		public boolean errorsOnly = false;
+
 		private static File file( String path ) {
 			return new File( path );
 		}
 	}
 
 	@Value
+	@AllArgsConstructor
 	static public class APTResult {
 
 		final boolean success;
 		final List<Diagnostic<? extends JavaFileObject>> diagnostics;
 
+		/**
+		 * Files generated during the run. Only available when running {@link Config#inMemory in memory}.
+		 */
+		final List<InMemoryFileManager.InMemoryFile> generatedFiles;
+
+		/**
+		 * How many diagnostics were reported, including the ones not retained in {@link #diagnostics}.
+		 */
+		final DiagnosticsSink.Summary summary;
+
+		/**
+		 * A class loader able to load classes compiled during the run, as long as it was
+		 * run in {@link Config#compile compile mode}. Other classes are loaded by the class loader
+		 * that loaded this library. It is only created on the first call, and the same class loader
+		 * is returned afterwards. It should be closed once its classes are no longer needed.
+		 */
+		@Getter(lazy = true)
+		@EqualsAndHashCode.Exclude @ToString.Exclude
+		private final InMemoryClassLoader classLoader = new InMemoryClassLoader( generatedFiles, SimplifiedAPTRunner.class.getClassLoader() );
+
+		public APTResult( boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics ) {
+			this( success, diagnostics, Collections.emptyList() );
+		}
+
+		public APTResult( boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics,
+						  List<InMemoryFileManager.InMemoryFile> generatedFiles ) {
+			this( success, diagnostics, generatedFiles, DiagnosticsSink.of( diagnostics ).getSummary() );
+		}
+
+		/**
+		 * @param className the canonical name of the generated class
+		 * @return the generated source, or null if it wasn't generated in memory
+		 */
+		public String getGeneratedSource( String className ) {
+			val bytes = getGeneratedFile( StandardLocation.SOURCE_OUTPUT, className.replace( '.', '/' ) + JavaFileObject.Kind.SOURCE.extension );
+			return bytes != null ? new String( bytes, StandardCharsets.UTF_8 ) : null;
+		}
+
+		/**
+		 * @param location the location where the file was generated at
+		 * @param path the file path, relative to the location
+		 * @return the generated file content, or null if it wasn't generated in memory
+		 */
+		public byte[] getGeneratedFile( JavaFileManager.Location location, String path ) {
+			for ( val file : generatedFiles )
+				if ( file.getLocation().equals( location ) && file.getPath().equals( path ) )
+					return file.getBytes();
+			return null;
+		}
+
 		public void printErrorsIfAny(){
 			printErrorsIfAny(System.out::println);
 		}
 
+		/**
+		 * Sends the retained errors to {@code writer}. Other diagnostics are available
+		 * through {@link #getDiagnostics()} and {@link #getSummary()}.
+		 */
 		public void printErrorsIfAny( Consumer<Diagnostic<? extends JavaFileObject>> writer ) {
             for (final Diagnostic<? extends JavaFileObject> diagnostic : getDiagnostics())
-                writer.accept(diagnostic);
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    writer.accept(diagnostic);
+		}
+
+		/**
+		 * @return the first error reported during the run, or null if there were none
+		 */
+		public Diagnostic<? extends JavaFileObject> getFirstError() {
+            for (final Diagnostic<? extends JavaFileObject> diagnostic : getDiagnostics())
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    return diagnostic;
+            return null;
 		}
 
+		/**
+		 * @throws IllegalStateException describing the first error, if any was reported
+		 */
 		public void failInCaseOfError() {
-            failInCaseOfError(d -> {
-				System.out.println(d);
-				if (d.getKind().equals(Diagnostic.Kind.ERROR)) {
-					throw new IllegalStateException(d.getMessage(Locale.getDefault()));
-				}
-			});
+            final Diagnostic<? extends JavaFileObject> error = getFirstError();
+            if (error != null)
+                throw new IllegalStateException(error.getMessage(Locale.getDefault()));
 		}
 
 		public void failInCaseOfError( Consumer<Diagnostic<? extends JavaFileObject>> writer ) {
@@ -117,19 +291,128 @@ public class SimplifiedAPTRunner {
 		}
 	}
 
+	/**
+	 * A source file read from the filesystem. The file is memory-mapped and decoded
+	 * with an explicit charset only once, as long as its size and last modification
+	 * time don't change, no matter how many times the compiler reads it. The cached content
+	 * is handed over as a read-only buffer, as some compilers write into writable ones.
+	 */
 	static public class LocalJavaSource extends SimpleJavaFileObject {
 
 		final File file;
+		final Charset charset;
+
+		CharBuffer cachedContent;
+		boolean cachedIgnoringEncodingErrors;
+		long cachedSize = -1;
+		long cachedLastModified = -1;
 
 		public LocalJavaSource(File file) {
+			this(file, Charset.defaultCharset());
+		}
+
+		public LocalJavaSource(File file, Charset charset) {
 			super(file.toURI(), Kind.SOURCE);
 			this.file = file;
+			this.charset = charset;
+		}
+
+		/**
+		 * Creates a source for every Java file found within the given directory and its subdirectories.
+		 *
+		 * @param sourceDir the root of the source tree
+		 * @param charset the charset used to decode the sources
+		 * @return the found sources, sorted by their path
+		 * @throws IOException If the directory could not be walked
+		 */
+		public static List<LocalJavaSource> allFrom(Path sourceDir, Charset charset) throws IOException {
+			final List<LocalJavaSource> sources = new ArrayList<>();
+			try ( Stream<Path> paths = Files.walk( sourceDir ) ) {
+				paths.filter( path -> path.toString().endsWith( Kind.SOURCE.extension ) && Files.isRegularFile( path ) )
+					 .sorted()
+					 .forEach( path -> sources.add( new LocalJavaSource( path.toFile(), charset ) ) );
+			}
+			return sources;
+		}
+
+		@Override
+		public synchronized CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
+			val size = file.length();
+			val lastModified = file.lastModified();
+			if ( cachedContent == null || cachedSize != size || cachedLastModified != lastModified
+			||   cachedIgnoringEncodingErrors != ignoreEncodingErrors ) {
+				cachedContent = decode( mapContent(), ignoreEncodingErrors );
+				cachedIgnoringEncodingErrors = ignoreEncodingErrors;
+				cachedSize = size;
+				cachedLastModified = lastModified;
+			}
+			return cachedContent.asReadOnlyBuffer();
+		}
+
+		@Override
+		public Reader openReader(boolean ignoreEncodingErrors) throws IOException {
+			return new CharBufferReader( (CharBuffer) getCharContent( ignoreEncodingErrors ) );
+		}
+
+		@Override
+		public InputStream openInputStream() throws IOException {
+			return Files.newInputStream( file.toPath() );
+		}
+
+		private ByteBuffer mapContent() throws IOException {
+			try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) ) {
+				return channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+			}
+		}
+
+		private CharBuffer decode( ByteBuffer content, boolean ignoreEncodingErrors ) throws CharacterCodingException {
+			val errorAction = ignoreEncodingErrors ? CodingErrorAction.REPLACE : CodingErrorAction.REPORT;
+			return charset.newDecoder()
+				.onMalformedInput( errorAction )
+				.onUnmappableCharacter( errorAction )
+				.decode( content );
+		}
+	}
+
+	/**
+	 * A {@link Reader} over a {@link CharBuffer}, that doesn't copy its content.
+	 */
+	static class CharBufferReader extends Reader {
+
+		final CharBuffer content;
+
+		CharBufferReader( CharBuffer content ) {
+			this.content = content;
+		}
+
+		@Override
+		public int read( char[] chars, int offset, int length ) {
+			if ( !content.hasRemaining() )
+				return -1;
+			final int read = Math.min( length, content.remaining() );
+			content.get( chars, offset, read );
+			return read;
+		}
+
+		@Override
+		public void close() { }
+	}
+
+	/**
+	 * A source file whose content is kept in memory.
+	 */
+	static public class InMemoryJavaSource extends SimpleJavaFileObject {
+
+		final String content;
+
+		public InMemoryJavaSource( String className, String content ) {
+			super( URI.create( "mem:///" + className.replace( '.', '/' ) + Kind.SOURCE.extension ), Kind.SOURCE );
+			this.content = content;
 		}
 
 		@Override
-		public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
-			val bytes = Files.readAllBytes( file.toPath() );
-			return new String( bytes, Charset.defaultCharset() );
+		public CharSequence getCharContent( boolean ignoreEncodingErrors ) {
+			return content;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -1,13 +1,12 @@
 package generator.apt;
 
-import lombok.Data;
-import lombok.EqualsAndHashCode;
-import lombok.Value;
-import lombok.val;
+import lombok.*;
 
 import javax.lang.model.SourceVersion;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -15,6 +14,12 @@ import java.util.stream.Collectors;
  */
 public interface SimplifiedAST {
 
+    /**
+     * @deprecated methods are now identified by {@link SimplifiedASTContext},
+     * according to their position within their type, thus {@link Method#getCounter()}
+     * is no longer unique across types. This counter is no longer incremented.
+     */
+    @Deprecated
     AtomicInteger methodCounter = new AtomicInteger(0);
 
     @Data
@@ -22,6 +27,14 @@ public interface SimplifiedAST {
         final String jdkGeneratedAnnotation = identifyGeneratedAnnotation();
 
         String canonicalName;
+        String packageName;
+        String simpleName;
+
+        /**
+         * Derived from {@link #simpleName} whenever it is defined.
+         */
+        @Setter(AccessLevel.NONE)
+        String generatedSimpleName;
         List<Element> fields = new ArrayList<>();
         List<Method> methods = new ArrayList<>();
         boolean isInterface;
@@ -30,31 +43,253 @@ public interface SimplifiedAST {
         Type superclass;
         List<Type> interfaces = new ArrayList<>();
 
-        public List<Type> getInheritedInterfaces() {
-            val interfaces = new ArrayList<Type>();
-            interfaces.addAll(getInterfaces());
+        /**
+         * When present, lazily resolves the {@link #superclass} on its first access.
+         */
+        @Getter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude
+        Supplier<Type> superclassResolver;
+
+        /**
+         * When present, lazily resolves the {@link #interfaces} on their first access.
+         */
+        @Getter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude
+        Supplier<List<Type>> interfacesResolver;
+
+        /**
+         * The element this type was created from. Should be given to the {@link javax.annotation.processing.Filer}
+         * when generating files from this type, allowing incremental builds to track them.
+         */
+        @EqualsAndHashCode.Exclude
+        javax.lang.model.element.TypeElement originatingElement;
+
+        /**
+         * Memoized by {@link #getInheritedInterfaces()}. Published at once, through a volatile
+         * field, so threads reading the same type never see it half-built.
+         */
+        @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude
+        volatile InheritedInterfaces inheritedInterfaces;
+
+        @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude @ToString.Exclude
+        WrappedDataList methodsIterable;
+
+        @Setter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude
+        boolean frozen;
+
+        public Type getSuperclass() {
+            if (superclassResolver != null) {
+                superclass = superclassResolver.get();
+                superclassResolver = null;
+            }
+            return superclass;
+        }
+
+        public Type setSuperclass(Type superclass) {
+            this.superclass = superclass;
+            this.superclassResolver = null;
+            this.inheritedInterfaces = null;
+            return this;
+        }
+
+        public List<Type> getInterfaces() {
+            if (interfacesResolver != null) {
+                interfaces = interfacesResolver.get();
+                interfacesResolver = null;
+            }
+            return interfaces;
+        }
+
+        public Type setInterfaces(List<Type> interfaces) {
+            this.interfaces = interfaces;
+            this.interfacesResolver = null;
+            this.inheritedInterfaces = null;
+            return this;
+        }
+
+        /**
+         * @return the elements that should be reported as originating elements of files
+         * generated from this type. Empty if it wasn't created from an element.
+         */
+        public javax.lang.model.element.Element[] getOriginatingElements() {
+            return originatingElement != null
+                ? new javax.lang.model.element.Element[]{ originatingElement }
+                : new javax.lang.model.element.Element[0];
+        }
 
+        /**
+         * Loads every lazily resolved supertype of this type, and their supertypes,
+         * so it can be safely read outside the annotation processing thread.
+         *
+         * @return this type
+         */
+        public Type resolveSupertypes() {
             val superclass = getSuperclass();
             if (superclass != null)
-                interfaces.addAll(superclass.getInheritedInterfaces());
+                superclass.resolveSupertypes();
+            for (val anInterface : getInterfaces())
+                anInterface.resolveSupertypes();
+            getInheritedInterfaces();
+            return this;
+        }
 
-            return interfaces;
+        /**
+         * Resolves the supertypes of this type, and decodes the annotation values of this type,
+         * its members and supertypes, so it can be rendered outside the annotation processing
+         * thread. Unlike {@link #freeze(UnaryOperator)}, the type can still be changed afterwards.
+         *
+         * @return this type
+         */
+        @Override
+        public Type materialize() {
+            resolveSupertypes();
+            super.materialize();
+            for (val field : fields)
+                field.materialize();
+            for (val method : methods)
+                method.materialize();
+            if (superclass != null)
+                superclass.materialize();
+            for (val anInterface : interfaces)
+                anInterface.materialize();
+            return this;
+        }
+
+        /**
+         * Turns this type, its members and supertypes into compact immutable structures:
+         * lists and maps are replaced by immutable copies, sharing a single instance when
+         * empty, names are interned, and everything computed lazily is computed upfront.
+         * Annotation values read from the compiler are decoded, and the compiler model is no
+         * longer referenced. Frozen types can be safely read by several threads at once.
+         * Only lists and maps are frozen: setters still change the fields of frozen elements,
+         * thus they should not be called once the model is shared.
+         *
+         * @param names interns the names found in the model
+         * @return this type
+         */
+        @Override
+        public Type freeze(UnaryOperator<String> names) {
+            if (frozen)
+                return this;
+            frozen = true;
+            resolveSupertypes();
+
+            super.freeze(names);
+            canonicalName = intern(names, canonicalName);
+            packageName = intern(names, packageName);
+            simpleName = intern(names, simpleName);
+            generatedSimpleName = intern(names, generatedSimpleName);
+            fields = freezeAll(fields, names);
+            methods = freezeAll(methods, names);
+            interfaces = freezeAll(interfaces, names);
+            if (superclass != null)
+                superclass.freeze(names);
+
+            getInheritedInterfaces();
+            getMethodsIterable();
+            return this;
         }
 
-        public String getPackageName() {
-            return canonicalName.replaceAll("(\\.[A-Z].*)", "");
+        /**
+         * @return every interface implemented by this type, its super-interfaces
+         * and the ones inherited from its superclasses. Direct interfaces come first,
+         * and each interface is listed only once. The list is computed on the first
+         * invocation and reused afterwards.
+         */
+        public List<Type> getInheritedInterfaces() {
+            return inheritedInterfaces().types;
+        }
+
+        private InheritedInterfaces inheritedInterfaces() {
+            InheritedInterfaces inherited = inheritedInterfaces;
+            if (inherited == null) {
+                val collected = new LinkedHashMap<String, Type>();
+                for (val anInterface : getInterfaces())
+                    collected.putIfAbsent(anInterface.canonicalName, anInterface);
+                for (val anInterface : getInterfaces())
+                    collectInto(collected, anInterface.getInheritedInterfaces());
+
+                val superclass = getSuperclass();
+                if (superclass != null)
+                    collectInto(collected, superclass.getInheritedInterfaces());
+
+                val names = new HashSet<String>();
+                for (val name : collected.keySet())
+                    names.add(eraseGenerics(name));
+
+                inheritedInterfaces = inherited = new InheritedInterfaces(
+                        Collections.unmodifiableList(new ArrayList<>(collected.values())),
+                        Collections.unmodifiableSet(names));
+            }
+            return inherited;
+        }
+
+        /**
+         * @param canonicalName the interface canonical name, with or without its generic parameters
+         * @return true if this type implements, directly or not, the given interface
+         */
+        public boolean implementsInterface(String canonicalName) {
+            return inheritedInterfaces().names.contains(eraseGenerics(canonicalName));
+        }
+
+        @Value
+        static class InheritedInterfaces {
+            List<Type> types;
+            Set<String> names;
         }
 
-        public String getSimpleName() {
-            return canonicalName.replaceAll(".*\\.([^.]+)$", "$1");
+        private static void collectInto(Map<String, Type> collected, List<Type> interfaces) {
+            for (val anInterface : interfaces)
+                collected.putIfAbsent(anInterface.canonicalName, anInterface);
         }
 
-        public String getGeneratedSimpleName() {
-            return getSimpleName() + "Router";
+        private static String eraseGenerics(String canonicalName) {
+            if (canonicalName == null)
+                return null;
+            val genericsStart = canonicalName.indexOf('<');
+            return genericsStart < 0 ? canonicalName : canonicalName.substring(0, genericsStart);
+        }
+
+        /**
+         * Defines the canonical name of this type, guessing its package and simple
+         * names from it. Prefer defining them explicitly whenever the backing
+         * element is available, as nested types or lowercase class names can't
+         * be reliably identified from the canonical name alone.
+         */
+        public Type setCanonicalName(String canonicalName) {
+            this.canonicalName = canonicalName;
+            if (canonicalName != null) {
+                val erasedName = eraseGenerics(canonicalName);
+                this.packageName = guessPackageName(erasedName);
+                setSimpleName(erasedName.substring(erasedName.lastIndexOf('.') + 1));
+            }
+            return this;
+        }
+
+        public Type setSimpleName(String simpleName) {
+            this.simpleName = simpleName;
+            this.generatedSimpleName = simpleName + "Router";
+            return this;
         }
 
-        public WrappedDataIterable getMethodsIterable() {
-            return new WrappedDataIterable(methods.subList(1, methods.size()));
+        private static String guessPackageName(String canonicalName) {
+            for (int i = 0; i < canonicalName.length() - 1; i++)
+                if (canonicalName.charAt(i) == '.' && Character.isUpperCase(canonicalName.charAt(i + 1)))
+                    return canonicalName.substring(0, i);
+            return canonicalName;
+        }
+
+        /**
+         * @return every method but the first one, wrapped. The list is reused until methods are added.
+         */
+        public WrappedDataList getMethodsIterable() {
+            WrappedDataList iterable = methodsIterable;
+            if (iterable == null || iterable.isStale(methods))
+                methodsIterable = iterable = new WrappedDataList(methods, Math.min(1, methods.size()));
+            return iterable;
         }
 
         private String identifyGeneratedAnnotation() {
@@ -66,7 +301,7 @@ public interface SimplifiedAST {
         }
         
         public String toString() {
-            return "class " + canonicalName + "(interfaces = [" + stringify(interfaces) + "], superclass = "+ superclass +")";
+            return "class " + canonicalName + "(interfaces = [" + stringify(getInterfaces()) + "], superclass = "+ getSuperclass() +")";
         }
     }
 
@@ -74,16 +309,33 @@ public interface SimplifiedAST {
     @Data
     class Method extends Element {
 
-        final int counter = methodCounter.getAndIncrement();
+        /**
+         * Identifies this method within its type. Assigned by {@link SimplifiedASTContext}
+         * as methods are memorized, starting from zero, so it is stable between runs. It is
+         * only unique within a type: methods of different types share the same counters, and
+         * should be told apart by their type canonical name as well. Methods created by hand
+         * are left with zero, unless it is explicitly defined.
+         */
+        int counter;
         boolean constructor;
         List<Element> parameters = new ArrayList<>();
 
+        @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude @ToString.Exclude
+        WrappedDataList parameterIterable;
+
         public boolean isVoidMethod() {
             return "void".equals(type);
         }
 
-        public WrappedDataIterable getParameterIterable() {
-            return new WrappedDataIterable(parameters);
+        /**
+         * @return the parameters, wrapped. The list is reused until parameters are added.
+         */
+        public WrappedDataList getParameterIterable() {
+            WrappedDataList iterable = parameterIterable;
+            if (iterable == null || iterable.isStale(parameters))
+                parameterIterable = iterable = new WrappedDataList(parameters, 0);
+            return iterable;
         }
 
         public String getParameterList() {
@@ -94,6 +346,22 @@ public interface SimplifiedAST {
             return stringify(parameters.stream().map(Element::getName).collect(Collectors.toList()));
         }
 
+        @Override
+        public Method materialize() {
+            super.materialize();
+            for (val parameter : parameters)
+                parameter.materialize();
+            return this;
+        }
+
+        @Override
+        public Method freeze(UnaryOperator<String> names) {
+            super.freeze(names);
+            parameters = freezeAll(parameters, names);
+            getParameterIterable();
+            return this;
+        }
+
         public String toString() {
             return stringify(annotations, "\n") + "\n" + type + " " + name + "(" + stringify(parameters, "\n") + ")";
         }
@@ -113,6 +381,40 @@ public interface SimplifiedAST {
             return null;
         }
 
+        /**
+         * Decodes the values of the annotations of this element.
+         *
+         * @return this element
+         * @see Type#materialize()
+         */
+        public Element materialize() {
+            for (val annotation : annotations)
+                annotation.materialize();
+            return this;
+        }
+
+        /**
+         * Replaces the annotations of this element by an immutable list, and interns its names.
+         *
+         * @param names interns the names found in the model
+         * @return this element
+         * @see Type#freeze(UnaryOperator)
+         */
+        public Element freeze(UnaryOperator<String> names) {
+            name = intern(names, name);
+            type = intern(names, type);
+            for (val annotation : annotations)
+                annotation.freeze(names);
+            annotations = immutableCopyOf(annotations);
+            return this;
+        }
+
+        static <T extends Element> List<T> freezeAll(List<T> elements, UnaryOperator<String> names) {
+            for (val element : elements)
+                element.freeze(names);
+            return immutableCopyOf(elements);
+        }
+
         public String toString() {
             return stringify(annotations) + " " + type + " " + name;
         }
@@ -123,17 +425,97 @@ public interface SimplifiedAST {
     class Annotation {
         Element parent;
         String type;
-        Map<String, Object> parameters = new HashMap<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
 
         public Object getValue() {
             return parameters.get("value");
         }
 
+        /**
+         * @return the {@code value} parameter as a Java object
+         * @see #getTypedParameter(String)
+         */
+        public Object getTypedValue() {
+            return getTypedParameter("value");
+        }
+
+        /**
+         * @param name the parameter name
+         * @return the parameter decoded into a Java object, when read from the compiler model
+         * (see {@link AnnotationValues#getTyped(String)}). Otherwise, the parameter as it was defined.
+         */
+        public Object getTypedParameter(String name) {
+            if (parameters instanceof AnnotationValues)
+                return ((AnnotationValues) parameters).getTyped(name);
+            return parameters.get(name);
+        }
+
+        /**
+         * Decodes the parameters read from the compiler model, if any.
+         *
+         * @return this annotation
+         * @see AnnotationValues#materialize()
+         */
+        public Annotation materialize() {
+            if (parameters instanceof AnnotationValues)
+                ((AnnotationValues) parameters).materialize();
+            return this;
+        }
+
+        /**
+         * Replaces the parameters of this annotation by an immutable map, and interns its names.
+         *
+         * @param names interns the names found in the model
+         * @return this annotation
+         */
+        public Annotation freeze(UnaryOperator<String> names) {
+            type = intern(names, type);
+            if (parameters instanceof AnnotationValues) {
+                ((AnnotationValues) parameters).freeze(names);
+                return this;
+            }
+            val frozenParameters = new LinkedHashMap<String, Object>();
+            for (val entry : parameters.entrySet())
+                frozenParameters.put(intern(names, entry.getKey()), entry.getValue());
+            parameters = ArrayMap.copyOf(frozenParameters);
+            return this;
+        }
+
         public String toString() {
             return "@" + type + "(" + stringify(parameters.entrySet()) + ")";
         }
     }
 
+    /**
+     * An enum constant used as annotation parameter.
+     */
+    @Value
+    class EnumConstant {
+        String type;
+        String name;
+
+        public String toString() {
+            return type + "." + name;
+        }
+    }
+
+    /**
+     * A class literal used as annotation parameter.
+     */
+    @Value
+    class ClassLiteral {
+        String canonicalName;
+
+        public String toString() {
+            return canonicalName + ".class";
+        }
+    }
+
+    /**
+     * @deprecated shares a single cursor between its iterators, and allocates a
+     * {@link WrappedData} per element. Use {@link WrappedDataList} instead.
+     */
+    @Deprecated
     @Data
     class WrappedDataIterable implements Iterable<WrappedData>, Iterator<WrappedData> {
 
@@ -157,10 +539,73 @@ public interface SimplifiedAST {
         }
     }
 
+    /**
+     * An immutable list of {@link WrappedData}, computed once from the wrapped list.
+     * It can be iterated by several threads, or nested iterations, at once.
+     */
+    class WrappedDataList extends AbstractList<WrappedData> implements RandomAccess {
+
+        final List<?> source;
+        final int sourceSize;
+        final WrappedData[] elements;
+
+        /**
+         * @param source the list to be wrapped
+         * @param fromIndex the index of the first wrapped element
+         */
+        public WrappedDataList(List<?> source, int fromIndex) {
+            this.source = source;
+            this.sourceSize = source.size();
+            this.elements = new WrappedData[sourceSize - fromIndex];
+            for (int i = 0; i < elements.length; i++)
+                elements[i] = new WrappedData(i == 0, i == elements.length - 1, i, source.get(fromIndex + i));
+        }
+
+        /**
+         * @return true if this list no longer reflects the given list. Only detects
+         * replaced lists and added or removed elements.
+         */
+        boolean isStale(List<?> currentSource) {
+            return currentSource != source || currentSource.size() != sourceSize;
+        }
+
+        @Override
+        public WrappedData get(int index) {
+            return elements[index];
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+    }
+
     @Value
+    @AllArgsConstructor
     class WrappedData {
         boolean first;
+        boolean last;
+        int index;
         Object data;
+
+        /**
+         * Wraps an element whose position, other than being the first one, is unknown.
+         */
+        public WrappedData(boolean first, Object data) {
+            this(first, false, -1, data);
+        }
+    }
+
+    static String intern(UnaryOperator<String> names, String name) {
+        return name != null ? names.apply(name) : null;
+    }
+
+    static <T> List<T> immutableCopyOf(List<T> list) {
+        switch (list.size()) {
+            case 0: return Collections.emptyList();
+            case 1: return Collections.singletonList(list.get(0));
+            default: return Collections.unmodifiableList(new ArrayList<>(list));
+        }
     }
 
     static String stringify(Iterable<?> iterable) {
@@ -15,7 +15,46 @@ import static javax.lang.model.element.Modifier.FINAL;
 
 public class SimplifiedASTContext {
 
-    public Map<String, Type> cachedTypes = new HashMap<>();
+    public Map<String, Type> cachedTypes = newTypeTable();
+
+    /**
+     * Every {@link Type} created during the current round, including
+     * superclasses and interfaces. Ensures a {@link TypeElement} is turned
+     * into a single {@link Type} per round, no matter how many memorized
+     * types share it in their hierarchy.
+     */
+    volatile Map<String, Type> internedTypes = newTypeTable();
+
+    /**
+     * When enabled, superclasses and interfaces of a memorized {@link Type}
+     * are only created from their {@link TypeElement} the first time they
+     * are accessed.
+     */
+    @Getter @Setter
+    boolean lazySupertypes = false;
+
+    /**
+     * When enabled, types are returned by {@link #getTypes()} sorted by their
+     * canonical names, and annotation parameters are sorted by their names,
+     * so the same sources always produce the same output. Otherwise, both
+     * keep the order they were found in.
+     */
+    @Getter @Setter
+    boolean deterministic = false;
+
+    /**
+     * When enabled, types returned by {@link #getTypes()} are {@link Type#freeze(java.util.function.UnaryOperator) frozen},
+     * trading their mutability for a smaller memory footprint and thread-safety.
+     */
+    @Getter @Setter
+    boolean freezeTypes = false;
+
+    /**
+     * Interns every type, annotation and element name read by this context,
+     * for as long as the context lives.
+     */
+    @Getter
+    final NamePool namePool = new NamePool();
 
     /**
      * @return true if any method, field or class have already been memorized.
@@ -25,15 +64,43 @@ public class SimplifiedASTContext {
     }
 
     /**
-     * @return all saved types in this context. Note that every invocation
-     * of this method will flush its content.
+     * @return all saved types in this context, in the order they were memorized
+     * or, when {@link #deterministic}, sorted by their canonical names. Note
+     * that every invocation of this method will flush its content.
      */
     public Collection<Type> getTypes() {
         val types = new ArrayList<Type>(cachedTypes.values());
-        cachedTypes = new HashMap<>();
+        cachedTypes = newTypeTable();
+        internedTypes = newTypeTable();
+        return prepare(types);
+    }
+
+    /**
+     * Freezes and sorts the drained types, according to how this context is configured.
+     */
+    List<Type> prepare(List<Type> types) {
+        if (freezeTypes)
+            for (val type : types)
+                type.freeze(namePool::intern);
+        if (deterministic)
+            types.sort(Comparator.comparing(Type::getCanonicalName));
         return types;
     }
 
+    /**
+     * @return a new table where types will be memorized or interned
+     */
+    protected Map<String, Type> newTypeTable() {
+        return new LinkedHashMap<>();
+    }
+
+    /**
+     * @return a new list where fields or methods of a memorized type will be added
+     */
+    protected <T> List<T> newMemberList() {
+        return new ArrayList<>();
+    }
+
     /**
      * Memorize a field for further usage.
      *
@@ -46,8 +113,8 @@ public class SimplifiedASTContext {
 
     private SimplifiedAST.Element createField(VariableElement variable) {
         val field = new SimplifiedAST.Element()
-            .setName( variable.getSimpleName().toString() )
-            .setType( variable.asType().toString() );
+            .setName( namePool.intern( variable.getSimpleName().toString() ) )
+            .setType( namePool.intern( variable.asType().toString() ) );
 
         return field.setAnnotations(loadAnnotations( variable, field ));
     }
@@ -58,17 +125,28 @@ public class SimplifiedASTContext {
      * @param method to be memorized
      */
     public void memorizeMethod(ExecutableElement method) {
-        getCachedType(method)
-            .methods.add(createMethod(method));
+        addMethod(getCachedType(method), createMethod(method));
+    }
+
+    /**
+     * Adds the method to the given type, identifying it by its position
+     * among the type's methods, so identifiers are stable between runs.
+     */
+    private static void addMethod(Type type, Method method) {
+        val methods = type.methods;
+        synchronized (methods) {
+            method.setCounter(methods.size());
+            methods.add(method);
+        }
     }
 
     private Method createMethod(ExecutableElement method) {
         val newParameters = extractMethodParameters(method);
-        val name = method.getSimpleName().toString();
+        val name = namePool.intern(method.getSimpleName().toString());
         val generatedMethod = (SimplifiedAST.Method) new SimplifiedAST.Method()
                 .setConstructor("<init>".equals(name))
                 .setParameters(newParameters)
-                .setType(method.getReturnType().toString())
+                .setType(namePool.intern(method.getReturnType().toString()))
                 .setName(name);
 
         return (SimplifiedAST.Method) generatedMethod
@@ -86,48 +164,92 @@ public class SimplifiedASTContext {
     }
 
     public Type memorizeType( TypeElement typeElement ) {
-        return cachedTypes.computeIfAbsent(
-                typeElement.asType().toString(),
-                t -> createTypeFrom(t, typeElement));
+        val canonicalName = namePool.intern(typeElement.asType().toString());
+        Type type = cachedTypes.get(canonicalName);
+        if (type == null) {
+            type = internType(internedTypes, canonicalName, typeElement);
+            val memorized = cachedTypes.putIfAbsent(canonicalName, type);
+            if (memorized != null)
+                type = memorized;
+        }
+        return type;
     }
 
-    private Type createTypeFrom(String canonicalName, TypeElement type) {
+    /**
+     * Interns types within the given table, rather than the current
+     * {@link #internedTypes}, so supertypes lazily resolved after
+     * {@link #getTypes()} was called are still shared with the round
+     * they belong to.
+     */
+    private Type internType(Map<String, Type> table, TypeElement typeElement) {
+        return internType(table, namePool.intern(typeElement.asType().toString()), typeElement);
+    }
+
+    private Type internType(Map<String, Type> table, String canonicalName, TypeElement typeElement) {
+        Type type = table.get(canonicalName);
+        if (type == null) {
+            type = createTypeFrom(table, canonicalName, typeElement);
+            val interned = table.putIfAbsent(canonicalName, type);
+            if (interned != null)
+                type = interned;
+        }
+        return type;
+    }
+
+    private Type createTypeFrom(Map<String, Type> table, String canonicalName, TypeElement type) {
         val newType = new SimplifiedAST.Type()
                 .setAbstract(isAbstract(type.getModifiers()))
                 .setInterface(type.getKind().equals(ElementKind.INTERFACE))
-                .setInterfaces(loadInterfacesFrom(type))
-                .setSuperclass(loadSuperclassFrom(type))
                 .setCanonicalName(canonicalName)
-                .setMethods(new ArrayList<>());
+                .setPackageName(namePool.intern(packageOf(type)))
+                .setSimpleName(namePool.intern(type.getSimpleName().toString()))
+                .setOriginatingElement(type)
+                .setFields(newMemberList())
+                .setMethods(newMemberList());
+
+        if (lazySupertypes)
+            newType.setInterfacesResolver(() -> loadInterfacesFrom(table, type))
+                   .setSuperclassResolver(() -> loadSuperclassFrom(table, type));
+        else
+            newType.setInterfaces(loadInterfacesFrom(table, type))
+                   .setSuperclass(loadSuperclassFrom(table, type));
+
         newType.setAnnotations( loadAnnotations(type, newType) );
         memorizeConstructors(newType, type);
         return newType;
     }
 
-    private List<Type> loadInterfacesFrom(TypeElement type) {
+    private List<Type> loadInterfacesFrom(Map<String, Type> table, TypeElement type) {
         val interfaces = new ArrayList<Type>();
         for (val interfaceTypeMirror : type.getInterfaces()) {
             val interfaceDeclaredType = (DeclaredType)interfaceTypeMirror;
             val interfaceType = (TypeElement) interfaceDeclaredType.asElement();
-            val canonicalName = interfaceType.asType().toString();
-            interfaces.add(createTypeFrom(canonicalName, interfaceType));
+            interfaces.add(internType(table, interfaceType));
         }
         return interfaces;
     }
 
-    private Type loadSuperclassFrom(TypeElement type) {
+    private Type loadSuperclassFrom(Map<String, Type> table, TypeElement type) {
         val foundSuperclass = type.getSuperclass();
 
         if (foundSuperclass.getKind() != TypeKind.NONE) {
             val superclassTypeMirror = (DeclaredType)foundSuperclass;
             val superclass = (TypeElement) superclassTypeMirror.asElement();
-            val canonicalName = superclass.asType().toString();
-            return createTypeFrom(canonicalName, superclass);
+            return internType(table, superclass);
         }
 
         return null;
     }
 
+    private static String packageOf(Element element) {
+        Element enclosing = element.getEnclosingElement();
+        while (enclosing != null && enclosing.getKind() != ElementKind.PACKAGE)
+            enclosing = enclosing.getEnclosingElement();
+        return enclosing != null
+            ? ((PackageElement) enclosing).getQualifiedName().toString()
+            : "";
+    }
+
     private boolean isAbstract(Set<Modifier> modifiers){
         return modifiers.contains(ABSTRACT);
     }
@@ -136,7 +258,7 @@ public class SimplifiedASTContext {
         val elements = type.getEnclosedElements();
         for (val element : elements)
             if (ElementKind.CONSTRUCTOR.equals(element.getKind()))
-                newType.methods.add(createMethod((ExecutableElement) element));
+                addMethod(newType, createMethod((ExecutableElement) element));
 
         memorizeLombokConstructors(newType, type);
     }
@@ -156,7 +278,7 @@ public class SimplifiedASTContext {
                     .setName("<init>")
                     .setType("void");
 
-            newType.methods.add(constructor);
+            addMethod(newType, constructor);
         }
     }
 
@@ -175,14 +297,14 @@ public class SimplifiedASTContext {
                     .setName("<init>")
                     .setType("void");
 
-            newType.methods.add(constructor);
+            addMethod(newType, constructor);
         }
     }
 
     private void memorizeLombokNoArgConstructor(Type newType, TypeElement type){
         val ann = type.getAnnotation(NoArgsConstructor.class);
         if (ann != null) {
-            newType.methods.add((SimplifiedAST.Method)
+            addMethod(newType, (SimplifiedAST.Method)
                 new SimplifiedAST.Method()
                     .setConstructor(true)
                     .setName("<init>")
@@ -208,9 +330,9 @@ public class SimplifiedASTContext {
     }
 
     private SimplifiedAST.Element createParameter(VariableElement parameter) {
-        val typeCanonicalName = getCanonicalName(parameter);
+        val typeCanonicalName = namePool.intern(getCanonicalName(parameter));
         val param = new SimplifiedAST.Element()
-                .setName(parameter.getSimpleName().toString())
+                .setName(namePool.intern(parameter.getSimpleName().toString()))
                 .setType(typeCanonicalName)
                 .setFinal(parameter.getModifiers().contains(FINAL));
 
@@ -228,17 +350,15 @@ public class SimplifiedASTContext {
     }
 
     private SimplifiedAST.Annotation createAnnotation(AnnotationMirror annotation) {
-        val type = annotation.getAnnotationType().asElement().asType().toString();
+        val type = namePool.intern(annotation.getAnnotationType().asElement().asType().toString());
         val elementValues = annotation.getElementValues();
-        val values = new HashMap<String, Object>();
+        final Map<String, AnnotationValue> values = deterministic ? new TreeMap<>() : new LinkedHashMap<>();
         for (val e : elementValues.entrySet())
-            values.put(
-                    e.getKey().getSimpleName().toString(),
-                    e.getValue().toString()
-            );
+            values.put(namePool.intern(e.getKey().getSimpleName().toString()), e.getValue());
 
         return new SimplifiedAST.Annotation()
-                .setParameters(values).setType(type);
+                .setParameters(new AnnotationValues(values, this::createAnnotation, namePool))
+                .setType(type);
     }
 
     private static String getCanonicalName(Element parameter) {
@@ -247,6 +367,7 @@ public class SimplifiedASTContext {
     }
 
     private static String getCanonicalName(String simpleName) {
-        return simpleName.replaceAll( "<.*", "" );
+        val genericsStart = simpleName.indexOf( '<' );
+        return genericsStart < 0 ? simpleName : simpleName.substring( 0, genericsStart );
     }
 }
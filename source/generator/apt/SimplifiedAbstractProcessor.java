@@ -9,21 +9,21 @@ import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
 import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
-import java.util.function.Consumer;
+import java.util.*;
 
 @RequiredArgsConstructor
 public abstract class SimplifiedAbstractProcessor extends AbstractProcessor {
 
-    final SimplifiedASTContext context = new SimplifiedASTContext();
+    final SimplifiedASTContext context = createContext();
     final List<Class<? extends Annotation>> fieldAnnotations;
     final List<Class<? extends Annotation>> methodAnnotations;
     final List<Class<? extends Annotation>> typeAnnotations;
 
+    AnnotatedElementScanner elementScanner;
     protected ResourceLocator resourceLocator;
 
     @Override
@@ -34,44 +34,20 @@ public abstract class SimplifiedAbstractProcessor extends AbstractProcessor {
 
     @Override
     public boolean process(Set<? extends TypeElement> set, RoundEnvironment round) {
-        fieldAnnotations.forEach(ann -> memorizeFieldsAnnotatedWith(round, ann));
-        methodAnnotations.forEach(ann -> memorizeMethodsAnnotatedWith(round, ann));
-        typeAnnotations.forEach(ann -> memorizeTypesAnnotatedWith(round, ann));
+        val found = elementScanner().scan( round.getRootElements(), processingEnv.getElementUtils() );
+        found.fields.forEach( context::memorizeField );
+        found.methods.forEach( context::memorizeMethod );
+        found.types.forEach( this::memorizeTypeAndItsMembers );
 
         if ( !context.isEmpty() )
             process(context.getTypes());
         return false;
     }
 
-    private void memorizeFieldsAnnotatedWith( RoundEnvironment round, Class<? extends Annotation> annotation) {
-        memorizeElementsAnnotatedWith( round, annotation, ElementKind.FIELD,
-                e -> context.memorizeField( (VariableElement)e ));
-    }
-
-    private void memorizeMethodsAnnotatedWith( RoundEnvironment round, Class<? extends Annotation> annotation) {
-        memorizeElementsAnnotatedWith( round, annotation, ElementKind.METHOD,
-                e -> context.memorizeMethod( (ExecutableElement) e ));
-    }
-
-    private void memorizeTypesAnnotatedWith( RoundEnvironment round, Class<? extends Annotation> annotation) {
-        memorizeElementsAnnotatedWith( round, annotation, ElementKind.CLASS,
-                e -> memorizeTypeAndItsMembers( (TypeElement) e ));
-        memorizeElementsAnnotatedWith( round, annotation, ElementKind.INTERFACE,
-                e -> memorizeTypeAndItsMembers( (TypeElement) e ));
-    }
-
-    private void memorizeElementsAnnotatedWith(
-        RoundEnvironment round,
-        Class<? extends Annotation> annotation,
-        ElementKind expectedElementKind,
-        Consumer<Element> callback)
-    {
-        val elements = round.getElementsAnnotatedWith( annotation );
-        if ( !elements.isEmpty() ) {
-            for ( val element : elements )
-                if ( expectedElementKind.equals( element.getKind() ) )
-                    callback.accept(element);
-        }
+    private AnnotatedElementScanner elementScanner() {
+        if ( elementScanner == null )
+            elementScanner = new AnnotatedElementScanner( fieldAnnotations, methodAnnotations, typeAnnotations );
+        return elementScanner;
     }
 
     private void memorizeTypeAndItsMembers( TypeElement e ){
@@ -86,6 +62,71 @@ public abstract class SimplifiedAbstractProcessor extends AbstractProcessor {
 
     protected abstract void process(Collection<SimplifiedAST.Type> types);
 
+    /**
+     * Generates classes for the given types through a {@link GenerationPipeline},
+     * rendering them in parallel. Failures are reported as compilation errors.
+     *
+     * @param pipeline the pipeline that will render and write the classes
+     * @param types the types to be generated
+     */
+    protected void generate(GenerationPipeline pipeline, Collection<SimplifiedAST.Type> types) {
+        try {
+            pipeline.generate( processingEnv.getFiler(), types );
+        } catch ( IOException e ) {
+            error( "Could not generate classes: " + e.getMessage() );
+        }
+    }
+
+    /**
+     * Creates the context where elements will be memorized. Override it
+     * to configure the context, e.g. enabling lazily resolved supertypes.
+     * Note that it is called during the construction of this processor.
+     *
+     * @return the context used by this processor
+     */
+    protected SimplifiedASTContext createContext() {
+        return new SimplifiedASTContext();
+    }
+
+    /**
+     * Defines how this processor behaves on incremental builds. Processors
+     * other than {@link IncrementalMode#NONE} should be registered as {@code dynamic}
+     * at {@code META-INF/gradle/incremental.annotation.processors}, allowing
+     * Gradle to identify their actual mode through {@link #getSupportedOptions()}.
+     *
+     * @return {@link IncrementalMode#NONE} by default
+     */
+    protected IncrementalMode getIncrementalMode() {
+        return IncrementalMode.NONE;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        val incrementalMode = getIncrementalMode();
+        if ( incrementalMode.option == null )
+            return super.getSupportedOptions();
+
+        val options = new HashSet<String>( super.getSupportedOptions() );
+        options.add( incrementalMode.option );
+        return options;
+    }
+
+    /**
+     * Creates a source file, reporting the originating elements of
+     * the given types to the {@link javax.annotation.processing.Filer}.
+     *
+     * @param className the canonical name of the generated class
+     * @param types the types the class was generated from
+     * @return the created source file
+     * @throws IOException If the file could not be created
+     */
+    protected JavaFileObject createSourceFile(String className, SimplifiedAST.Type... types) throws IOException {
+        val originatingElements = new ArrayList<Element>();
+        for ( val type : types )
+            originatingElements.addAll( Arrays.asList( type.getOriginatingElements() ) );
+        return processingEnv.getFiler().createSourceFile( className, originatingElements.toArray( new Element[0] ) );
+    }
+
     /**
      * We just return the latest version of whatever JDK we run on. Stupid?
      * Yeah, but it's either that or warnings on all versions but 1. Blame Joe.
@@ -108,4 +149,22 @@ public abstract class SimplifiedAbstractProcessor extends AbstractProcessor {
     protected void error(final String msg) {
         processingEnv.getMessager().printMessage( Diagnostic.Kind.ERROR, msg );
     }
+
+    /**
+     * Incremental annotation processing categories, as defined by Gradle.
+     */
+    @RequiredArgsConstructor
+    public enum IncrementalMode {
+
+        /** Incremental builds are not supported. */
+        NONE( null ),
+
+        /** Each generated file is derived from a single type, reported as its originating element. */
+        ISOLATING( "org.gradle.annotation.processing.isolating" ),
+
+        /** Generated files may aggregate several types. */
+        AGGREGATING( "org.gradle.annotation.processing.aggregating" );
+
+        final String option;
+    }
 }
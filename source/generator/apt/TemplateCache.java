@@ -0,0 +1,101 @@
+package generator.apt;
+
+import com.github.mustachejava.Mustache;
+import lombok.Getter;
+import lombok.val;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A size-bounded cache of compiled Mustache templates, keyed by their name.
+ * The least recently used ones are evicted once {@link #getMaxSize()} is reached.
+ *
+ * Compiled templates reference the factory that compiled them, thus each cache
+ * is owned by a single {@link BoundedMustacheFactory}, and is garbage collected
+ * along with it.
+ */
+public class TemplateCache {
+
+    static final int DEFAULT_MAX_SIZE = 64;
+
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+    final AtomicLong evictions = new AtomicLong();
+    final Map<String, Mustache> templates;
+
+    @Getter
+    final int maxSize;
+
+    public TemplateCache( int maxSize ) {
+        if ( maxSize < 1 )
+            throw new IllegalArgumentException( "maxSize should be greater than zero: " + maxSize );
+        this.maxSize = maxSize;
+        this.templates = new LinkedHashMap<String, Mustache>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, Mustache> eldest ) {
+                val shouldEvict = size() > TemplateCache.this.maxSize;
+                if ( shouldEvict )
+                    evictions.incrementAndGet();
+                return shouldEvict;
+            }
+        };
+    }
+
+    /**
+     * Retrieves a compiled template, compiling it with {@code compiler} in
+     * case it wasn't cached yet.
+     *
+     * @param templateName the template to be compiled
+     * @param compiler compiles the template, bypassing any other cache
+     * @return the compiled template
+     */
+    public Mustache compile( String templateName, Function<String, Mustache> compiler ) {
+        synchronized ( templates ) {
+            val cached = templates.get( templateName );
+            if ( cached != null ) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        misses.incrementAndGet();
+        val compiled = compiler.apply( templateName );
+        synchronized ( templates ) {
+            val concurrentlyCompiled = templates.putIfAbsent( templateName, compiled );
+            return concurrentlyCompiled != null ? concurrentlyCompiled : compiled;
+        }
+    }
+
+    /**
+     * @return the amount of templates currently held by this cache.
+     */
+    public int size() {
+        synchronized ( templates ) {
+            return templates.size();
+        }
+    }
+
+    /**
+     * Discards every cached template. Counters are kept untouched.
+     */
+    public void clear() {
+        synchronized ( templates ) {
+            templates.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+}
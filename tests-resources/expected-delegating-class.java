@@ -0,0 +1,16 @@
+package generator.apt.samples;
+
+class AnnotatedClassDelegated {
+
+    final generator.apt.samples.AnnotatedClass target = new generator.apt.samples.AnnotatedClass();
+
+    java.lang.String name(){
+        return target.name;
+    }
+
+
+    int sum(int p1, int p2){
+        return target.sum(p1, p2);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package generator.apt;
+
+import generator.apt.samples.APT;
+import generator.apt.samples.IgnoredProcessor;
+import generator.apt.samples.Limits;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.function.UnaryOperator;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnnotationValuesTest {
+
+    final IgnoredProcessor processor = new IgnoredProcessor();
+
+    @DisplayName("SHOULD decode every value, including nested ones, WHEN a type is materialized")
+    @Test void materialize(){
+        val type = compileLimitedClass();
+        val limits = (AnnotationValues) type.getFields().get(0).getAnnotation( Limits.class ).getParameters();
+        for ( val typedValue : limits.typedValues )
+            assertNull( typedValue );
+
+        type.materialize();
+
+        for ( int i = 0; i < limits.names.length; i++ ) {
+            assertNotNull( limits.rawValues[i] );
+            assertNotNull( limits.typedValues[i] );
+        }
+        val important = (SimplifiedAST.Annotation) limits.getTyped( "important" );
+        val nested = (AnnotationValues) important.getParameters();
+        assertEquals( "nested", nested.typedValues[0] );
+        assertEquals( "\"nested\"", nested.rawValues[0] );
+    }
+
+    @DisplayName("SHOULD redefine parameters WHEN they are put into annotations read from the compiler")
+    @Test void put(){
+        val type = compileLimitedClass();
+        val limits = type.getFields().get(0).getAnnotation( Limits.class );
+
+        assertEquals( "1", limits.getParameters().put( "min", "2" ) );
+        assertNull( limits.getParameters().put( "max", 10 ) );
+        assertEquals( "2", limits.getParameters().get( "min" ) );
+        assertEquals( "2", limits.getTypedParameter( "min" ) );
+        assertEquals( 10, limits.getTypedParameter( "max" ) );
+        assertEquals( asList( "min", "unit", "types", "important", "max" ), asList( limits.getParameters().keySet().toArray() ) );
+
+        val unit = limits.getParameters().get( "unit" );
+        assertEquals( new SimplifiedAST.EnumConstant( "java.util.concurrent.TimeUnit", "SECONDS" ), limits.getTypedParameter( "unit" ) );
+        assertEquals( unit, limits.getParameters().remove( "unit" ) );
+        assertNull( limits.getTypedParameter( "unit" ) );
+        assertFalse( limits.getParameters().containsKey( "unit" ) );
+        assertEquals( asList( "min", "types", "important", "max" ), asList( limits.getParameters().keySet().toArray() ) );
+    }
+
+    @DisplayName("SHOULD reject changes to parameters WHEN the type was frozen")
+    @Test void freeze(){
+        val type = compileLimitedClass().freeze( UnaryOperator.identity() );
+        val limits = type.getFields().get(0).getAnnotation( Limits.class );
+
+        assertThrows( UnsupportedOperationException.class, () -> limits.getParameters().put( "min", "2" ) );
+        assertThrows( UnsupportedOperationException.class, () -> limits.getParameters().remove( "min" ) );
+        assertThrows( UnsupportedOperationException.class, () -> limits.getParameters().clear() );
+        assertEquals( 1, limits.getTypedParameter( "min" ) );
+    }
+
+    @DisplayName("SHOULD release the compiler model WHEN the type was frozen")
+    @Test void freeze1(){
+        val type = compileLimitedClass().freeze( UnaryOperator.identity() );
+        val limits = (AnnotationValues) type.getFields().get(0).getAnnotation( Limits.class ).getParameters();
+        val nested = (AnnotationValues) ((SimplifiedAST.Annotation) limits.getTyped( "important" )).getParameters();
+
+        for ( val values : asList( limits, nested ) ) {
+            assertNull( values.values );
+            assertNull( values.annotationFactory );
+            assertNull( values.namePool );
+            assertThrows( UnsupportedOperationException.class, () -> values.put( "value", "changed" ) );
+        }
+        assertEquals( "1", limits.get( "min" ) );
+        assertEquals( "nested", nested.getTyped( "value" ) );
+        assertEquals( "\"nested\"", nested.get( "value" ) );
+    }
+
+    SimplifiedAST.Type compileLimitedClass(){
+        APT.compile( processor, new File( "tests/generator/apt/samples/LimitedClass.java" ) );
+        return processor.getTypes().get(0);
+    }
+}
@@ -7,16 +7,23 @@ import lombok.val;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
 import java.io.File;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class ClassGeneratorTest {
 
     static final String ANNOTATED_CLASS = "tests/generator/apt/samples/AnnotatedClass.java";
+    static final String GENERATED_CLASS = "generator.apt.samples.AnnotatedClassDelegated";
+    static final String GENERATED_PATH = "generator/apt/samples/AnnotatedClassDelegated.java";
 
     @SneakyThrows
     @DisplayName("Should be able to generate a class filled with the expected parameters")
@@ -32,6 +39,52 @@ class ClassGeneratorTest {
         assertEquals( expectedClass, generatedClass.toString() );
     }
 
+    @SneakyThrows
+    @DisplayName("Should be able to generate a class straight into a file, in chunks")
+    @Test void write1(){
+        val expectedClassBytes = Files.readAllBytes( Paths.get("tests-resources/expected-generated-class.java") );
+        val expectedClass = new String( expectedClassBytes, "UTF-8" );
+
+        val generatedClass = new StringWriter();
+        val generatedFile = new SimpleJavaFileObject( URI.create("string:///AnnotatedClassDelegated.java"), JavaFileObject.Kind.SOURCE ) {
+            @Override
+            public Writer openWriter() {
+                return generatedClass;
+            }
+        };
+
+        ClassGenerator.with("delegate-class.mustache")
+                .setChunkSize( 16 )
+                .write( generatedFile, readMethodsAndFieldsIgnoredInTheAnnotatedClass() );
+
+        assertEquals( expectedClass, generatedClass.toString() );
+    }
+
+    @SneakyThrows
+    @DisplayName("Should generate the same class WHEN rendering through method handles")
+    @Test void write2(){
+        val expectedClassBytes = Files.readAllBytes( Paths.get("tests-resources/expected-generated-class.java") );
+        val expectedClass = new String( expectedClassBytes, "UTF-8" );
+
+        val generator = ClassGenerator.with( "delegate-class.mustache", RenderingBackend.METHOD_HANDLES );
+        val type = readMethodsAndFieldsIgnoredInTheAnnotatedClass();
+
+        assertEquals( expectedClass, generator.render( type ) );
+        assertEquals( expectedClass, generator.render( type ) );
+    }
+
+    @SneakyThrows
+    @DisplayName("Should write the class through the Filer, reporting its originating elements")
+    @Test void write3(){
+        val filer = new FakeFiler();
+        val generator = ClassGenerator.with("delegate-class.mustache");
+        val type = readMethodsAndFieldsIgnoredInTheAnnotatedClass();
+
+        generator.write( filer, GENERATED_CLASS, type );
+        assertEquals( generator.render( type ), filer.files.get( GENERATED_PATH ) );
+        assertArrayEquals( type.getOriginatingElements(), filer.originatingElements.get( GENERATED_CLASS ) );
+    }
+
     SimplifiedAST.Type readMethodsAndFieldsIgnoredInTheAnnotatedClass(){
         val processor = new IgnoredProcessor();
         val annotatedClass = new File( ANNOTATED_CLASS );
@@ -0,0 +1,45 @@
+package generator.apt;
+
+import generator.apt.samples.GeneratingProcessor;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentAPTRunnerTest {
+
+    @SneakyThrows
+    @Timeout( 60 )
+    @DisplayName("SHOULD run jobs concurrently, keeping their results isolated")
+    @Test void runAll(){
+        val expectedClass = new String( Files.readAllBytes( Paths.get( "tests-resources/expected-delegating-class.java" ) ), "UTF-8" );
+        val config = new SimplifiedAPTRunner.Config();
+        config.inMemory = true;
+
+        val source = new SimplifiedAPTRunner.LocalJavaSource( new File( ClassGeneratorTest.ANNOTATED_CLASS ) );
+        val jobs = new ArrayList<ConcurrentAPTRunner.Job>();
+        for ( int i = 0; i < 4; i++ )
+            jobs.add( ConcurrentAPTRunner.Job.of( new GeneratingProcessor(), source ) );
+
+        try ( ConcurrentAPTRunner runner = new ConcurrentAPTRunner( config, ToolProvider.getSystemJavaCompiler(), 2 ) ) {
+            val results = runner.runAll( jobs );
+
+            assertEquals( 4, results.size() );
+            for ( val result : results ) {
+                assertTrue( result.isSuccess() );
+                assertEquals( 1, result.getGeneratedFiles().size() );
+                assertEquals( expectedClass, result.getGeneratedSource( "generator.apt.samples.AnnotatedClassDelegated" ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package generator.apt;
+
+import generator.apt.samples.APT;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConcurrentSimplifiedASTContextTest {
+
+    static final int THREADS = 8;
+
+    @DisplayName("SHOULD neither lose nor duplicate members WHEN memorizing and draining them from several threads")
+    @Test void memorize(){
+        val processor = new MemorizingProcessor();
+        APT.compile( processor,
+            new File( "tests/generator/apt/samples/AnnotatedClass.java" ),
+            new File( "tests/generator/apt/samples/LombokAnnotatedClass.java" ),
+            new File( "tests/generator/apt/samples/LimitedClass.java" ) );
+
+        val memorizedFields = new ArrayList<String>();
+        val memorizedMethods = new ArrayList<String>();
+        for ( val type : processor.drained ) {
+            for ( val field : type.getFields() )
+                memorizedFields.add( type.getCanonicalName() + "#" + field.getName() );
+
+            val counters = new HashSet<Integer>();
+            for ( val method : type.getMethods() ) {
+                counters.add( method.getCounter() );
+                if ( !method.isConstructor() )
+                    memorizedMethods.add( type.getCanonicalName() + "#" + method.getName() );
+            }
+            assertEquals( type.getMethods().size(), counters.size() );
+        }
+
+        assertEquals( sorted( processor.expectedFields ), sorted( memorizedFields ) );
+        assertEquals( sorted( processor.expectedMethods ), sorted( memorizedMethods ) );
+    }
+
+    @DisplayName("SHOULD reject lazy supertypes")
+    @Test void setLazySupertypes(){
+        val context = new ConcurrentSimplifiedASTContext();
+        assertThrows( IllegalArgumentException.class, () -> context.setLazySupertypes( true ) );
+    }
+
+    static List<String> sorted( List<String> names ){
+        val sorted = new ArrayList<String>( names );
+        Collections.sort( sorted );
+        return sorted;
+    }
+
+    /**
+     * Memorizes every field and method of the root elements from {@link #THREADS} threads,
+     * while another thread keeps draining the context.
+     */
+    @SupportedAnnotationTypes("*")
+    static class MemorizingProcessor extends AbstractProcessor {
+
+        final ConcurrentSimplifiedASTContext context = new ConcurrentSimplifiedASTContext();
+        final List<VariableElement> fields = new ArrayList<>();
+        final List<ExecutableElement> methods = new ArrayList<>();
+        final List<String> expectedFields = new ArrayList<>();
+        final List<String> expectedMethods = new ArrayList<>();
+        final Set<SimplifiedAST.Type> drained = Collections.newSetFromMap( new IdentityHashMap<>() );
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @SneakyThrows
+        @Override
+        public boolean process( Set<? extends TypeElement> annotations, RoundEnvironment round ) {
+            if ( round.getRootElements().isEmpty() )
+                return false;
+            for ( val element : round.getRootElements() )
+                collect( (TypeElement) element );
+
+            val executor = Executors.newFixedThreadPool( THREADS + 1 );
+            try {
+                val start = new CountDownLatch( 1 );
+                val tasks = new ArrayList<Future<?>>();
+                for ( int t = 0; t < THREADS; t++ ) {
+                    final int thread = t;
+                    tasks.add( executor.submit( () -> {
+                        start.await();
+                        for ( int i = thread; i < fields.size(); i += THREADS )
+                            context.memorizeField( fields.get( i ) );
+                        for ( int i = thread; i < methods.size(); i += THREADS )
+                            context.memorizeMethod( methods.get( i ) );
+                        return null;
+                    } ) );
+                }
+                tasks.add( executor.submit( () -> {
+                    start.await();
+                    for ( int i = 0; i < 100; i++ )
+                        drained.addAll( context.getTypes() );
+                    return null;
+                } ) );
+
+                start.countDown();
+                for ( val task : tasks )
+                    task.get();
+            } finally {
+                executor.shutdown();
+            }
+
+            drained.addAll( context.getTypes() );
+            return false;
+        }
+
+        private void collect( TypeElement type ) {
+            for ( val enclosed : type.getEnclosedElements() ) {
+                val name = type.getQualifiedName() + "#" + enclosed.getSimpleName();
+                if ( enclosed.getKind() == ElementKind.FIELD ) {
+                    fields.add( (VariableElement) enclosed );
+                    expectedFields.add( name );
+                } else if ( enclosed.getKind() == ElementKind.METHOD ) {
+                    methods.add( (ExecutableElement) enclosed );
+                    expectedMethods.add( name );
+                } else if ( enclosed instanceof TypeElement )
+                    collect( (TypeElement) enclosed );
+            }
+        }
+    }
+}
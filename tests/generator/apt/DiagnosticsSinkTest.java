@@ -0,0 +1,68 @@
+package generator.apt;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DiagnosticsSinkTest {
+
+    static final JavaFileObject SOURCE = new SimplifiedAPTRunner.InMemoryJavaSource( "sample.Sample", "" );
+
+    @DisplayName("SHOULD count every diagnostic WHILE retaining only the first ones of each kind")
+    @Test void report(){
+        val sink = new DiagnosticsSink( 2, false );
+        for ( int i = 0; i < 5; i++ )
+            sink.report( new FakeDiagnostic( Diagnostic.Kind.WARNING, SOURCE, "warning " + i ) );
+        sink.report( new FakeDiagnostic( Diagnostic.Kind.ERROR, null, "error" ) );
+
+        assertEquals( 3, sink.getDiagnostics().size() );
+        assertEquals( "warning 1", sink.getDiagnostics().get( 1 ).getMessage( null ) );
+
+        val summary = sink.getSummary();
+        assertEquals( 6, summary.getTotalCount() );
+        assertEquals( 5, summary.getCount( Diagnostic.Kind.WARNING ) );
+        assertEquals( 1, summary.getErrorCount() );
+        assertEquals( 5, (int) summary.getCountsPerSource().get( SOURCE.getName() ).get( Diagnostic.Kind.WARNING ) );
+    }
+
+    @DisplayName("SHOULD keep only the first error WHEN configured to keep errors only")
+    @Test void report1(){
+        val sink = new DiagnosticsSink( 10, true );
+        sink.report( new FakeDiagnostic( Diagnostic.Kind.WARNING, SOURCE, "warning" ) );
+        sink.report( new FakeDiagnostic( Diagnostic.Kind.ERROR, SOURCE, "first" ) );
+        sink.report( new FakeDiagnostic( Diagnostic.Kind.ERROR, SOURCE, "second" ) );
+
+        assertEquals( 1, sink.getDiagnostics().size() );
+        assertEquals( 2, sink.getSummary().getTotalCount() );
+
+        val result = new SimplifiedAPTRunner.APTResult( false, sink.getDiagnostics() );
+        val exception = assertThrows( IllegalStateException.class, result::failInCaseOfError );
+        assertEquals( "first", exception.getMessage() );
+    }
+
+    @RequiredArgsConstructor
+    static class FakeDiagnostic implements Diagnostic<JavaFileObject> {
+
+        final Kind kind;
+        final JavaFileObject source;
+        final String message;
+
+        public Kind getKind() { return kind; }
+        public JavaFileObject getSource() { return source; }
+        public long getPosition() { return NOPOS; }
+        public long getStartPosition() { return NOPOS; }
+        public long getEndPosition() { return NOPOS; }
+        public long getLineNumber() { return NOPOS; }
+        public long getColumnNumber() { return NOPOS; }
+        public String getCode() { return null; }
+        public String getMessage( Locale locale ) { return message; }
+    }
+}
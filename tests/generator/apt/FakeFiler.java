@@ -0,0 +1,84 @@
+package generator.apt;
+
+import lombok.val;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A {@link Filer} keeping files in memory, recording the originating elements of every created source file.
+ */
+public class FakeFiler implements Filer {
+
+    public final Map<String, String> files = new HashMap<>();
+    public final Map<String, Element[]> originatingElements = new LinkedHashMap<>();
+
+    @Override
+    public JavaFileObject createSourceFile( CharSequence name, Element... originatingElements ) {
+        val path = name.toString().replace( '.', '/' ) + JavaFileObject.Kind.SOURCE.extension;
+        this.originatingElements.put( name.toString(), originatingElements );
+        return new SimpleJavaFileObject( URI.create( "mem:///" + path ), JavaFileObject.Kind.SOURCE ) {
+            @Override
+            public Writer openWriter() {
+                return new StringWriter() {
+                    @Override
+                    public void close() {
+                        files.put( path, toString() );
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public JavaFileObject createClassFile( CharSequence name, Element... originatingElements ) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileObject createResource( JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements ) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileObject getResource( JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName ) {
+        val path = relativeName.toString();
+        return new SimpleJavaFileObject( URI.create( "mem:///" + path ), JavaFileObject.Kind.OTHER ) {
+            @Override
+            public InputStream openInputStream() throws IOException {
+                val content = files.get( path );
+                if ( content == null )
+                    throw new FileNotFoundException( path );
+                return new ByteArrayInputStream( content.getBytes( StandardCharsets.UTF_8 ) );
+            }
+        };
+    }
+
+    /**
+     * @return a processing environment whose only available service is this filer
+     */
+    public ProcessingEnvironment asProcessingEnvironment() {
+        return new ProcessingEnvironment() {
+            public Map<String, String> getOptions() { return Collections.emptyMap(); }
+            public Messager getMessager() { return null; }
+            public Filer getFiler() { return FakeFiler.this; }
+            public Elements getElementUtils() { return null; }
+            public Types getTypeUtils() { return null; }
+            public SourceVersion getSourceVersion() { return SourceVersion.latestSupported(); }
+            public Locale getLocale() { return Locale.getDefault(); }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package generator.apt;
+
+import com.google.testing.compile.Compilation;
+import generator.apt.samples.APT;
+import generator.apt.samples.GeneratingProcessor;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationPipelineTest {
+
+    @SneakyThrows
+    @DisplayName("SHOULD write the classes rendered by the worker threads")
+    @Test void generate(){
+        val expectedClassBytes = Files.readAllBytes( Paths.get("tests-resources/expected-delegating-class.java") );
+        val expectedClass = new String( expectedClassBytes, "UTF-8" );
+
+        val compilation = APT.compile( new GeneratingProcessor(), new File( ClassGeneratorTest.ANNOTATED_CLASS ) );
+        assertEquals( Compilation.Status.SUCCESS, compilation.status() );
+
+        val generatedClass = compilation.generatedSourceFile( "generator.apt.samples.AnnotatedClassDelegated" ).get();
+        assertEquals( expectedClass, generatedClass.getCharContent( true ).toString() );
+        assertTrue( compilation.generatedFile( StandardLocation.CLASS_OUTPUT, "generator/apt/samples/AnnotatedClassDelegated.class" ).isPresent() );
+    }
+}
@@ -0,0 +1,34 @@
+package generator.apt;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NamePoolTest {
+
+    @DisplayName("SHOULD share a single instance per name")
+    @Test void intern(){
+        val pool = new NamePool();
+        val first = pool.intern( new String( "java.lang.String" ) );
+        val second = pool.intern( new String( "java.lang.String" ) );
+        pool.intern( "java.util.List" );
+
+        assertSame( first, second );
+        assertEquals( 2, pool.size() );
+        assertEquals( 1, pool.getHits() );
+        assertEquals( 2, pool.getMisses() );
+        assertEquals( 1 / 3d, pool.getHitRate() );
+    }
+
+    @DisplayName("SHOULD ignore null names")
+    @Test void intern1(){
+        val pool = new NamePool();
+        assertNull( pool.intern( null ) );
+        assertEquals( 0, pool.size() );
+        assertEquals( 0, pool.getHitRate() );
+    }
+}
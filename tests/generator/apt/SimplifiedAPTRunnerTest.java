@@ -1,6 +1,7 @@
 package generator.apt;
 
 import com.google.testing.compile.JavaFileObjects;
+import generator.apt.samples.GeneratingProcessor;
 import generator.apt.samples.IgnoredProcessor;
 import lombok.SneakyThrows;
 import lombok.val;
@@ -14,10 +15,18 @@ import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class SimplifiedAPTRunnerTest {
 
@@ -50,4 +59,112 @@ public class SimplifiedAPTRunnerTest {
         assertEquals( 1, type.getFields().size() );
         assertEquals( 2, type.getMethods().size() );
 	}
-}
\ No newline at end of file
+
+	@Test @SneakyThrows
+	public void canBeReusedForSeveralRuns() {
+		val clazz = new File( "tests/generator/apt/samples/AnnotatedClass.java" );
+		val source = new SimplifiedAPTRunner.LocalJavaSource( clazz );
+
+		val firstResult = runner.run( new IgnoredProcessor(), source );
+		runner.reset();
+		val secondResult = runner.run( new IgnoredProcessor(), source );
+
+		assertTrue( firstResult.isSuccess() );
+		assertTrue( secondResult.isSuccess() );
+		assertEquals( firstResult.getDiagnostics().size(), secondResult.getDiagnostics().size() );
+	}
+
+	@Test( expected = IllegalStateException.class )
+	public void cannotBeUsedOnceClosed() {
+		val clazz = new File( "tests/generator/apt/samples/AnnotatedClass.java" );
+		runner.close();
+		runner.run( new IgnoredProcessor(), new SimplifiedAPTRunner.LocalJavaSource( clazz ) );
+	}
+
+	@Test( timeout = 60_000 ) @SneakyThrows
+	public void canKeepGeneratedFilesInMemory() {
+		val config = new SimplifiedAPTRunner.Config();
+		config.inMemory = true;
+
+		val clazz = new File( "tests/generator/apt/samples/AnnotatedClass.java" );
+		try ( SimplifiedAPTRunner inMemoryRunner = new SimplifiedAPTRunner( config, ToolProvider.getSystemJavaCompiler() ) ) {
+			val result = inMemoryRunner.run( new GeneratingProcessor(), new SimplifiedAPTRunner.LocalJavaSource( clazz ) );
+			result.printErrorsIfAny();
+			assertTrue( result.isSuccess() );
+
+			val expectedClass = new String( Files.readAllBytes( Paths.get( "tests-resources/expected-delegating-class.java" ) ), "UTF-8" );
+			assertEquals( expectedClass, result.getGeneratedSource( "generator.apt.samples.AnnotatedClassDelegated" ) );
+		}
+	}
+
+	@Test( timeout = 60_000 ) @SneakyThrows
+	public void createsASingleClassLoaderPerResult() {
+		val result = new SimplifiedAPTRunner.APTResult( true, Collections.emptyList() );
+		val executor = Executors.newFixedThreadPool( 4 );
+		try {
+			val loaders = new ArrayList<Future<InMemoryClassLoader>>();
+			for ( int i = 0; i < 8; i++ )
+				loaders.add( executor.submit( result::getClassLoader ) );
+			for ( val loader : loaders )
+				assertSame( result.getClassLoader(), loader.get() );
+		} finally {
+			executor.shutdownNow();
+			result.getClassLoader().close();
+		}
+	}
+
+	@Test( timeout = 60_000 ) @SneakyThrows
+	public void canCompileAndLoadGeneratedClasses() {
+		val config = new SimplifiedAPTRunner.Config();
+		config.inMemory = true;
+		config.compile = true;
+
+		val source = new SimplifiedAPTRunner.InMemoryJavaSource( "generator.apt.samples.Named",
+			"package generator.apt.samples; public class Named { @Ignored String name = \"named\"; }" );
+		try ( SimplifiedAPTRunner compilingRunner = new SimplifiedAPTRunner( config, ToolProvider.getSystemJavaCompiler() ) ) {
+			val result = compilingRunner.run( new GeneratingProcessor(), source );
+			result.printErrorsIfAny();
+			assertTrue( result.isSuccess() );
+
+			try ( InMemoryClassLoader classLoader = result.getClassLoader() ) {
+				val generatedClass = classLoader.loadClass( "generator.apt.samples.NamedDelegated" );
+				assertSame( generatedClass, classLoader.loadClass( "generator.apt.samples.NamedDelegated" ) );
+				assertSame( classLoader, generatedClass.getClassLoader() );
+
+				val constructor = generatedClass.getDeclaredConstructor();
+				constructor.setAccessible( true );
+				val name = generatedClass.getDeclaredMethod( "name" );
+				name.setAccessible( true );
+				assertEquals( "named", name.invoke( constructor.newInstance() ) );
+			}
+		}
+	}
+
+	@Test @SneakyThrows
+	public void canLoadEverySourceFromADirectory() {
+		val sources = SimplifiedAPTRunner.LocalJavaSource.allFrom( Paths.get( "tests/generator/apt/samples" ), StandardCharsets.UTF_8 );
+		assertTrue( sources.size() > 1 );
+
+		val annotatedClass = sources.stream()
+			.filter( s -> s.getName().endsWith( "AnnotatedClass.java" ) && !s.getName().contains( "Lombok" ) )
+			.findFirst().get();
+		val expectedContent = new String( Files.readAllBytes( Paths.get( "tests/generator/apt/samples/AnnotatedClass.java" ) ), StandardCharsets.UTF_8 );
+		assertEquals( expectedContent, annotatedClass.getCharContent( false ).toString() );
+	}
+
+	@Test @SneakyThrows
+	public void canCompileTheSameSourceSeveralTimes() {
+		val clazz = new File( "tests/generator/apt/samples/AnnotatedClass.java" );
+		val source = new SimplifiedAPTRunner.LocalJavaSource( clazz, StandardCharsets.UTF_8 );
+		val expectedContent = new String( Files.readAllBytes( clazz.toPath() ), StandardCharsets.UTF_8 );
+
+		for ( int i = 0; i < 3; i++ ) {
+			val processor = new IgnoredProcessor();
+			val result = runner.run( processor, source );
+			result.printErrorsIfAny();
+			assertTrue( result.isSuccess() );
+			assertEquals( 2, processor.getTypes().get(0).getMethods().size() );
+			assertEquals( expectedContent, source.getCharContent( false ).toString() );
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package generator.apt;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TemplateCacheTest {
+
+    static final String TEMPLATE = "delegate-class.mustache";
+    static final String OTHER_TEMPLATE = "delegating-class.mustache";
+
+    @DisplayName("SHOULD compile a template only once per factory")
+    @Test void compile(){
+        val factory = new BoundedMustacheFactory( 2 );
+        val cache = factory.getTemplateCache();
+
+        val first = factory.compile( TEMPLATE );
+        val second = factory.compile( TEMPLATE );
+
+        assertSame( first, second );
+        assertEquals( 1, cache.getMisses() );
+        assertEquals( 1, cache.getHits() );
+        assertEquals( 1, cache.size() );
+    }
+
+    @DisplayName("SHOULD evict the least recently used template WHEN the cache is full")
+    @Test void compile1(){
+        val factory = new BoundedMustacheFactory( 1 );
+        val cache = factory.getTemplateCache();
+
+        val first = factory.compile( TEMPLATE );
+        factory.compile( OTHER_TEMPLATE );
+
+        assertEquals( 2, cache.getMisses() );
+        assertEquals( 1, cache.getEvictions() );
+        assertEquals( 1, cache.size() );
+        assertNotSame( first, factory.compile( TEMPLATE ) );
+    }
+
+    @DisplayName("SHOULD share compiled templates between generators using the same backend")
+    @Test void compile2(){
+        val factory = RenderingBackend.REFLECTION.getFactory();
+        val generator = ClassGenerator.with( TEMPLATE );
+        generator.render( new SimplifiedAST.Type() );
+        val hits = factory.getTemplateCache().getHits();
+
+        ClassGenerator.with( TEMPLATE ).render( new SimplifiedAST.Type() );
+        assertEquals( hits + 1, factory.getTemplateCache().getHits() );
+    }
+}
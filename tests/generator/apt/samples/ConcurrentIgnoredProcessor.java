@@ -0,0 +1,15 @@
+package generator.apt.samples;
+
+import generator.apt.ConcurrentSimplifiedASTContext;
+import generator.apt.SimplifiedASTContext;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+
+@SupportedAnnotationTypes("generator.apt.samples.*")
+public class ConcurrentIgnoredProcessor extends IgnoredProcessor {
+
+    @Override
+    protected SimplifiedASTContext createContext() {
+        return new ConcurrentSimplifiedASTContext();
+    }
+}
@@ -0,0 +1,14 @@
+package generator.apt.samples;
+
+import generator.apt.SimplifiedASTContext;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+
+@SupportedAnnotationTypes("generator.apt.samples.*")
+public class DeterministicIgnoredProcessor extends IgnoredProcessor {
+
+    @Override
+    protected SimplifiedASTContext createContext() {
+        return new SimplifiedASTContext().setDeterministic(true);
+    }
+}
@@ -0,0 +1,46 @@
+package generator.apt.samples;
+
+import generator.apt.ClassGenerator;
+import generator.apt.GenerationPipeline;
+import generator.apt.SimplifiedAST;
+import generator.apt.SimplifiedAbstractProcessor;
+import lombok.val;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Generates a {@code <SimpleName>Delegated} class for every type with {@link Ignored} members.
+ * Generated classes don't carry the annotations of the original types, and are never
+ * processed again in later rounds.
+ */
+@SupportedAnnotationTypes("generator.apt.samples.*")
+public class GeneratingProcessor extends SimplifiedAbstractProcessor {
+
+    static final String GENERATED_SUFFIX = "Delegated";
+
+    final GenerationPipeline pipeline = GenerationPipeline.with(
+        ClassGenerator.with( "delegating-class.mustache" ),
+        type -> type.getPackageName() + "." + type.getSimpleName() + GENERATED_SUFFIX
+    ).setWorkers( 2 );
+
+    public GeneratingProcessor() {
+        super(
+            singletonList(Ignored.class),
+            singletonList(Ignored.class),
+            singletonList(Ignored.class)
+        );
+    }
+
+    @Override
+    protected void process(Collection<SimplifiedAST.Type> types) {
+        val originalTypes = new ArrayList<SimplifiedAST.Type>();
+        for ( val type : types )
+            if ( !type.getSimpleName().endsWith( GENERATED_SUFFIX ) )
+                originalTypes.add( type );
+        generate( pipeline, originalTypes );
+    }
+}
@@ -0,0 +1,21 @@
+package generator.apt.samples;
+
+import generator.apt.SimplifiedAST;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+
+@SupportedAnnotationTypes("generator.apt.samples.*")
+public class IsolatingProcessor extends IgnoredProcessor {
+
+    @Override
+    protected IncrementalMode getIncrementalMode() {
+        return IncrementalMode.ISOLATING;
+    }
+
+    @Override
+    public JavaFileObject createSourceFile(String className, SimplifiedAST.Type... types) throws IOException {
+        return super.createSourceFile(className, types);
+    }
+}
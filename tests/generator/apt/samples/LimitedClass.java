@@ -0,0 +1,10 @@
+package generator.apt.samples;
+
+import java.util.concurrent.TimeUnit;
+
+public class LimitedClass {
+
+    @Ignored
+    @Limits(min = 1, unit = TimeUnit.SECONDS, types = { String.class, Integer.class }, important = @Important("nested"))
+    String name;
+}
@@ -0,0 +1,14 @@
+package generator.apt.samples;
+
+import java.util.concurrent.TimeUnit;
+
+public @interface Limits {
+
+    int min();
+
+    TimeUnit unit();
+
+    Class<?>[] types();
+
+    Important important();
+}
@@ -1,12 +1,20 @@
 package generator.apt.samples;
 
+import generator.apt.FakeFiler;
+import generator.apt.SimplifiedAST;
+import lombok.SneakyThrows;
 import lombok.val;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 
+import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SimplifiedAbstractProcessorTest {
@@ -27,12 +35,18 @@ class SimplifiedAbstractProcessorTest {
 
         assertEquals( Superclass.class.getCanonicalName(), type.getSuperclass().getCanonicalName() );
 
+        assertEquals( 1, type.getOriginatingElements().length );
+        assertEquals( "AnnotatedClass", type.getOriginatingElements()[0].getSimpleName().toString() );
+
         assertEquals( 1, type.getInterfaces().size() );
         assertEquals( Interface.class.getCanonicalName(), type.getInterfaces().get(0).getCanonicalName() );
 
         assertEquals( 2, type.getInheritedInterfaces().size() );
         assertEquals( Interface.class.getCanonicalName(), type.getInheritedInterfaces().get(0).getCanonicalName() );
         assertEquals( Runnable.class.getCanonicalName(), type.getInheritedInterfaces().get(1).getCanonicalName() );
+        assertSame( type.getInheritedInterfaces(), type.getInheritedInterfaces() );
+        assertTrue( type.implementsInterface( Runnable.class.getCanonicalName() ) );
+        assertFalse( type.implementsInterface( AutoCloseable.class.getCanonicalName() ) );
 
         val ignoredField = type.getFields().get(0);
         assertEquals( "name", ignoredField.getName() );
@@ -92,4 +106,133 @@ class SimplifiedAbstractProcessorTest {
         assertTrue( constructor.isConstructor() );
         assertEquals( 0, constructor.getParameters().size() );
     }
+
+    @DisplayName("SHOULD share supertypes among types memorized in the same round")
+    @Test void process4() {
+        val annotatedClass = new File( "tests/generator/apt/samples/LombokAnnotatedClass.java" );
+        APT.compile( processor, annotatedClass );
+
+        val first = processor.types.get(0);
+        val second = processor.types.get(1);
+
+        assertEquals( Object.class.getCanonicalName(), first.getSuperclass().getCanonicalName() );
+        assertSame( first.getSuperclass(), second.getSuperclass() );
+    }
+
+    @DisplayName("SHOULD lazily resolve supertypes WHEN the context is configured to")
+    @Test void process5() {
+        val lazyProcessor = new LazyIgnoredProcessor();
+        val annotatedClass = new File( "tests/generator/apt/samples/AnnotatedClass.java" );
+        APT.compile( lazyProcessor, annotatedClass );
+
+        val type = lazyProcessor.types.get(0);
+        assertEquals( Superclass.class.getCanonicalName(), type.getSuperclass().getCanonicalName() );
+        assertEquals( 1, type.getSuperclass().getMethods().size() );
+        assertEquals( 2, type.getInheritedInterfaces().size() );
+        assertSame( type.getSuperclass(), type.getSuperclass() );
+    }
+
+    @DisplayName("SHOULD memorize the same elements WHEN using a concurrent context")
+    @Test void process6() {
+        val concurrentProcessor = new ConcurrentIgnoredProcessor();
+        val annotatedClass = new File( "tests/generator/apt/samples/AnnotatedClass.java" );
+        APT.compile( concurrentProcessor, annotatedClass );
+
+        assertEquals( 1, concurrentProcessor.types.size() );
+        val type = concurrentProcessor.types.get(0);
+        assertEquals( "generator.apt.samples.AnnotatedClass", type.getCanonicalName() );
+        assertEquals( 1, type.getFields().size() );
+        assertEquals( 2, type.getMethods().size() );
+        assertEquals( 2, type.getInheritedInterfaces().size() );
+    }
+
+    @DisplayName("SHOULD identify methods by their position within their type")
+    @Test void process7() {
+        val annotatedClass = new File( "tests/generator/apt/samples/AnnotatedClass.java" );
+        APT.compile( processor, annotatedClass );
+        val methods = processor.types.get(0).getMethods();
+
+        val otherProcessor = new IgnoredProcessor();
+        APT.compile( otherProcessor, annotatedClass );
+        val otherMethods = otherProcessor.types.get(0).getMethods();
+
+        for ( int i = 0; i < methods.size(); i++ ) {
+            assertEquals( i, methods.get(i).getCounter() );
+            assertEquals( i, otherMethods.get(i).getCounter() );
+        }
+    }
+
+    @DisplayName("SHOULD sort types by their canonical names WHEN the context is deterministic")
+    @Test void process8() {
+        val deterministicProcessor = new DeterministicIgnoredProcessor();
+        APT.compile( deterministicProcessor,
+            new File( "tests/generator/apt/samples/LombokAnnotatedClass.java" ),
+            new File( "tests/generator/apt/samples/AnnotatedClass.java" ) );
+
+        val names = new ArrayList<String>();
+        for ( val type : deterministicProcessor.types )
+            names.add( type.getCanonicalName() );
+
+        assertEquals( asList(
+            "generator.apt.samples.AllArgsAnnotatedClass",
+            "generator.apt.samples.AnnotatedClass",
+            "generator.apt.samples.RequiredArgsAnnotatedClass"
+        ), names );
+    }
+
+    @DisplayName("SHOULD decode annotation values into Java objects WHEN they are read")
+    @Test void process9() {
+        val limitedClass = new File( "tests/generator/apt/samples/LimitedClass.java" );
+        APT.compile( processor, limitedClass );
+
+        val limits = processor.types.get(0).getFields().get(0).getAnnotation( Limits.class );
+        assertEquals( "1", limits.getParameters().get( "min" ) );
+        assertEquals( 1, limits.getTypedParameter( "min" ) );
+        assertEquals( new SimplifiedAST.EnumConstant( "java.util.concurrent.TimeUnit", "SECONDS" ), limits.getTypedParameter( "unit" ) );
+        assertEquals( asList( new SimplifiedAST.ClassLiteral( "java.lang.String" ), new SimplifiedAST.ClassLiteral( "java.lang.Integer" ) ),
+            limits.getTypedParameter( "types" ) );
+
+        val important = (SimplifiedAST.Annotation) limits.getTypedParameter( "important" );
+        assertEquals( Important.class.getCanonicalName(), important.getType() );
+        assertEquals( "nested", important.getTypedValue() );
+        assertEquals( "\"nested\"", important.getValue() );
+        assertSame( important, limits.getTypedParameter( "important" ) );
+    }
+
+    @DisplayName("SHOULD advertise the Gradle incremental option WHEN the processor is incremental")
+    @Test void getSupportedOptions() {
+        val isolating = "org.gradle.annotation.processing.isolating";
+        assertTrue( new IsolatingProcessor().getSupportedOptions().contains( isolating ) );
+        assertFalse( processor.getSupportedOptions().contains( isolating ) );
+    }
+
+    @SneakyThrows
+    @DisplayName("SHOULD report the originating elements of types WHEN creating source files")
+    @Test void createSourceFile() {
+        val annotatedClass = new File( "tests/generator/apt/samples/AnnotatedClass.java" );
+        APT.compile( processor, annotatedClass );
+        val type = processor.types.get(0);
+
+        val filer = new FakeFiler();
+        val isolatingProcessor = new IsolatingProcessor();
+        isolatingProcessor.init( filer.asProcessingEnvironment() );
+        isolatingProcessor.createSourceFile( "generator.apt.samples.AnnotatedClassGenerated", type );
+
+        val originatingElements = filer.originatingElements.get( "generator.apt.samples.AnnotatedClassGenerated" );
+        assertEquals( 1, originatingElements.length );
+        assertSame( type.getOriginatingElement(), originatingElements[0] );
+    }
+
+    @DisplayName("SHOULD memorize types inheriting an @Inherited annotation from their superclass")
+    @Test void process10() {
+        val trackedProcessor = new TrackedProcessor();
+        APT.compile( trackedProcessor, new File( "tests/generator/apt/samples/TrackedSubclass.java" ) );
+
+        val names = new ArrayList<String>();
+        for ( val type : trackedProcessor.types )
+            names.add( type.getCanonicalName() );
+        Collections.sort( names );
+
+        assertEquals( asList( "generator.apt.samples.TrackedSubclass", "generator.apt.samples.TrackedSuperclass" ), names );
+    }
 }
@@ -0,0 +1,7 @@
+package generator.apt.samples;
+
+import java.lang.annotation.Inherited;
+
+@Inherited
+public @interface Tracked {
+}
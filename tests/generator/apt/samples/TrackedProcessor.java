@@ -0,0 +1,33 @@
+package generator.apt.samples;
+
+import generator.apt.SimplifiedAST;
+import generator.apt.SimplifiedAbstractProcessor;
+import lombok.Getter;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+@SupportedAnnotationTypes("*")
+public class TrackedProcessor extends SimplifiedAbstractProcessor {
+
+    @Getter
+    List<SimplifiedAST.Type> types = new ArrayList<>();
+
+    public TrackedProcessor() {
+        super(
+            emptyList(),
+            emptyList(),
+            singletonList(Tracked.class)
+        );
+    }
+
+    @Override
+    protected void process(Collection<SimplifiedAST.Type> types) {
+        this.types.addAll(types);
+    }
+}
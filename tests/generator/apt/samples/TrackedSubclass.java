@@ -0,0 +1,8 @@
+package generator.apt.samples;
+
+public class TrackedSubclass extends TrackedSuperclass {
+}
+
+@Tracked
+class TrackedSuperclass {
+}
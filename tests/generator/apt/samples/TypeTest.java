@@ -10,7 +10,13 @@ import org.junit.jupiter.api.condition.EnabledOnJre;
 import org.junit.jupiter.api.condition.JRE;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings("unchecked")
@@ -38,6 +44,92 @@ class TypeTest {
         assertNotNull(loaded);
     }
 
+    @Test @DisplayName("SHOULD guess package and simple names from the canonical name")
+    void canGuessNamesFromCanonicalName(){
+        val named = new SimplifiedAST.Type().setCanonicalName("generator.apt.samples.Outer.Inner<java.lang.String>");
+        assertEquals("generator.apt.samples", named.getPackageName());
+        assertEquals("Inner", named.getSimpleName());
+        assertEquals("InnerRouter", named.getGeneratedSimpleName());
+
+        named.setSimpleName("Renamed");
+        assertEquals("RenamedRouter", named.getGeneratedSimpleName());
+    }
+
+    @Test @DisplayName("SHOULD wrap methods once, allowing nested iterations")
+    void canIterateWrappedMethodsReentrantly(){
+        for (val name : new String[]{ "<init>", "first", "second", "third" })
+            type.getMethods().add((SimplifiedAST.Method) new SimplifiedAST.Method().setName(name));
+
+        val wrapped = type.getMethodsIterable();
+        assertSame(wrapped, type.getMethodsIterable());
+        assertEquals(3, wrapped.size());
+
+        int iterations = 0;
+        for (val outer : wrapped)
+            for (val inner : wrapped)
+                iterations++;
+        assertEquals(9, iterations);
+
+        assertTrue(wrapped.get(0).isFirst());
+        assertTrue(wrapped.get(2).isLast());
+        assertEquals(1, wrapped.get(1).getIndex());
+        assertEquals("second", ((SimplifiedAST.Method) wrapped.get(1).getData()).getName());
+
+        type.getMethods().add(new SimplifiedAST.Method());
+        assertEquals(4, type.getMethodsIterable().size());
+    }
+
+    @Test @DisplayName("SHOULD turn the model into immutable structures WHEN frozen")
+    void canBeFrozen(){
+        val annotation = new SimplifiedAST.Annotation().setType(new String("generator.apt.samples.Important"));
+        annotation.getParameters().put("value", "\"p1\"");
+        val parameter = new SimplifiedAST.Element().setName("p1").setType(new String("java.lang.String"));
+        parameter.getAnnotations().add(annotation);
+        val method = (SimplifiedAST.Method) new SimplifiedAST.Method().setName("sum");
+        method.getParameters().add(parameter);
+        type.setCanonicalName("generator.apt.samples.Frozen").getMethods().add(method);
+
+        assertSame(type, type.freeze(String::intern));
+        assertTrue(type.isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> type.getFields().add(new SimplifiedAST.Element()));
+        assertThrows(UnsupportedOperationException.class, () -> method.getParameters().add(parameter));
+        assertThrows(UnsupportedOperationException.class, () -> annotation.getParameters().put("other", ""));
+        assertSame("java.lang.String", parameter.getType());
+        assertSame("generator.apt.samples.Important", annotation.getType());
+        assertEquals("\"p1\"", parameter.getAnnotation(Important.class).getValue());
+        assertEquals(1, method.getParameterIterable().size());
+    }
+
+    @SneakyThrows
+    @Test @DisplayName("SHOULD memorize inherited interfaces once WHEN read by several threads at once")
+    void canReadInheritedInterfacesConcurrently(){
+        val executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 100; i++) {
+                val runnable = new SimplifiedAST.Type().setCanonicalName("java.lang.Runnable");
+                val superclass = new SimplifiedAST.Type().setCanonicalName("generator.apt.samples.Superclass")
+                        .setInterfaces(new ArrayList<>(singletonList(runnable)));
+                val concurrentType = new SimplifiedAST.Type().setCanonicalName("generator.apt.samples.AnnotatedClass")
+                        .setSuperclass(superclass);
+
+                val start = new CountDownLatch(1);
+                val results = new ArrayList<Future<List<SimplifiedAST.Type>>>();
+                for (int j = 0; j < 4; j++)
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        assertTrue(concurrentType.implementsInterface("java.lang.Runnable"));
+                        return concurrentType.getInheritedInterfaces();
+                    }));
+                start.countDown();
+
+                for (val result : results)
+                    assertEquals(singletonList(runnable), result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @SneakyThrows
     <T extends Annotation> Class<T> annotationClassFrom(String canonicalName){
         return (Class<T>) Class.forName(canonicalName);